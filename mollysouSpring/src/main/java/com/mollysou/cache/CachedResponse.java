@@ -0,0 +1,35 @@
+package com.mollysou.cache;
+
+// Encoded body of a read endpoint, valid for one catalog version
+public class CachedResponse {
+
+    private final long version;
+    private final String contentType;
+    private final String etag;
+    private final long lastModified;
+    private final byte[] body;
+    private final byte[] gzipBody;
+
+    public CachedResponse(long version, String contentType, String etag, long lastModified,
+                          byte[] body, byte[] gzipBody) {
+        this.version = version;
+        this.contentType = contentType;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.body = body;
+        this.gzipBody = gzipBody;
+    }
+
+    public long getVersion() { return version; }
+
+    public String getContentType() { return contentType; }
+
+    public String getEtag() { return etag; }
+
+    public long getLastModified() { return lastModified; }
+
+    public byte[] getBody() { return body; }
+
+    // Null when the body is too small to be worth compressing
+    public byte[] getGzipBody() { return gzipBody; }
+}
@@ -0,0 +1,143 @@
+package com.mollysou.cache;
+
+import com.mollysou.catalog.CatalogVersion;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// Caches the already-serialized JSON of hot catalog endpoints (plus a gzip variant) per
+// path and query string. Entries are tagged with the catalog version they were produced
+// under and are ignored as soon as the catalog changes; a hit writes the stored bytes
+// directly without running the controller, the query or Jackson.
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final int MAX_ENTRIES = 1024;
+    private static final int MIN_GZIP_SIZE = 512;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    // In access order: past MAX_ENTRIES the least recently used entry goes, so one-off keys
+    // (cursors, unknown ids, cache-buster parameters) cannot push out the hot entries
+    private final Map<String, CachedResponse> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || domainFor(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // Hits may be gzipped, so every response of these paths varies on it, whether it was
+        // cached or not: a shared cache must not serve a stored miss to a gzip client or back
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        CatalogVersion.Domain domain = domainFor(request.getRequestURI());
+        // Read before the controller runs: an entry can only be older than its data, never newer
+        long version = catalogVersion.version(domain);
+        long lastModified = catalogVersion.lastModified(domain);
+        String key = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+
+        CachedResponse cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null && cached.getVersion() == version) {
+            writeCached(cached, request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getHeader(HttpHeaders.ETAG) != null) {
+            store(key, version, lastModified, wrapper);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private void writeCached(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cached.getEtag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, cached.getLastModified());
+        if (request.getHeader(HttpHeaders.ORIGIN) != null) {
+            // The controllers' @CrossOrigin(origins = "*") does not run on a hit
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+        }
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.contains(cached.getEtag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = cached.getBody();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (cached.getGzipBody() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            body = cached.getGzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.getContentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void store(String key, long version, long lastModified, ContentCachingResponseWrapper wrapper)
+            throws IOException {
+        byte[] body = wrapper.getContentAsByteArray();
+        byte[] gzipBody = body.length >= MIN_GZIP_SIZE ? gzip(body) : null;
+
+        CachedResponse response = new CachedResponse(version, wrapper.getContentType(),
+                wrapper.getHeader(HttpHeaders.ETAG), lastModified, body, gzipBody);
+        synchronized (cache) {
+            cache.put(key, response);
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static CatalogVersion.Domain domainFor(String path) {
+        if (path.equals("/api/categories") || path.startsWith("/api/categories/")
+                || path.startsWith("/api/products/available") || path.startsWith("/api/products/category/")) {
+            return CatalogVersion.Domain.CATALOG;
+        }
+        if (path.equals("/api/events") || path.equals("/api/events/popular")) {
+            return CatalogVersion.Domain.EVENTS;
+        }
+        return null;
+    }
+}
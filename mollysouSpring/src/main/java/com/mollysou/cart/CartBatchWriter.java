@@ -0,0 +1,92 @@
+package com.mollysou.cart;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes cart changes to the cart table with JDBC batches, in one transaction
+@Component
+public class CartBatchWriter {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void write(List<CartChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> clears = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<CartChange> sets = new ArrayList<>();
+        for (UserChanges user : coalesce(changes).values()) {
+            if (user.cleared) {
+                clears.add(new Object[]{user.userId});
+            }
+            for (CartChange change : user.lines.values()) {
+                if (change.getQuantity() > 0) {
+                    sets.add(change);
+                } else if (!user.cleared) {
+                    deletes.add(new Object[]{change.getUserId(), change.getProductId()});
+                }
+            }
+        }
+
+        if (!clears.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM cart WHERE user_id = ?", clears);
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM cart WHERE user_id = ? AND product_id = ?", deletes);
+        }
+        if (!sets.isEmpty()) {
+            upsert(sets);
+        }
+    }
+
+    // Reduces a sequence of changes (e.g. a replayed journal) to at most one clear and one
+    // final quantity per line and user; a clear discards the changes that came before it
+    private Map<Long, UserChanges> coalesce(List<CartChange> changes) {
+        Map<Long, UserChanges> byUser = new LinkedHashMap<>();
+        for (CartChange change : changes) {
+            UserChanges user = byUser.computeIfAbsent(change.getUserId(), UserChanges::new);
+            if (change.getType() == CartChange.Type.CLEAR) {
+                user.cleared = true;
+                user.lines.clear();
+            } else {
+                user.lines.put(change.getProductId(), change);
+            }
+        }
+        return byUser;
+    }
+
+    // Relies on the unique (user_id, product_id) key: one batched statement either inserts
+    // the line or overwrites it. added_at is overwritten too, since a line removed and added
+    // again before a flush reaches the database as an update with a later addedAt.
+    private void upsert(List<CartChange> sets) {
+        List<Object[]> rows = new ArrayList<>();
+        for (CartChange change : sets) {
+            rows.add(new Object[]{change.getUserId(), change.getProductId(), change.getQuantity(),
+                    new Timestamp(change.getAddedAt())});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO cart (user_id, product_id, quantity, added_at) VALUES (?, ?, ?, ?) AS new "
+                + "ON DUPLICATE KEY UPDATE quantity = new.quantity, added_at = new.added_at", rows);
+    }
+
+    private static class UserChanges {
+        private final long userId;
+        private boolean cleared;
+        private final Map<Long, CartChange> lines = new LinkedHashMap<>();
+
+        UserChanges(long userId) {
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.mollysou.cart;
+
+// A cart mutation as it is journaled and written to the database. Set-quantity changes
+// carry the final quantity rather than a delta, so replaying them twice is harmless.
+public class CartChange {
+
+    public enum Type { SET, CLEAR }
+
+    private final Type type;
+    private final long userId;
+    private final long productId;
+    // 0 removes the line
+    private final int quantity;
+    private final long addedAt;
+
+    private CartChange(Type type, long userId, long productId, int quantity, long addedAt) {
+        this.type = type;
+        this.userId = userId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.addedAt = addedAt;
+    }
+
+    public static CartChange set(long userId, long productId, int quantity, long addedAt) {
+        return new CartChange(Type.SET, userId, productId, quantity, addedAt);
+    }
+
+    public static CartChange clear(long userId) {
+        return new CartChange(Type.CLEAR, userId, 0, 0, 0);
+    }
+
+    public Type getType() { return type; }
+
+    public long getUserId() { return userId; }
+
+    public long getProductId() { return productId; }
+
+    public int getQuantity() { return quantity; }
+
+    public long getAddedAt() { return addedAt; }
+}
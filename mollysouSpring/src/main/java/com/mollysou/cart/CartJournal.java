@@ -0,0 +1,154 @@
+package com.mollysou.cart;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Append-only log of cart changes that have been acknowledged but maybe not yet written
+// to the database. The log is split in numbered segments: a flush starts a new segment and
+// deletes the older ones once their changes are in the database. Records are fixed-size,
+// so a record torn by a crash is detected and ignored on replay.
+public class CartJournal {
+
+    private static final String PREFIX = "cart-journal-";
+    private static final String SUFFIX = ".log";
+    private static final int RECORD_SIZE = 1 + 8 + 8 + 4 + 8;
+
+    private final Path directory;
+    private final boolean fsync;
+    private long segment;
+    private FileOutputStream file;
+    private DataOutputStream out;
+
+    public CartJournal(Path directory, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+        this.segment = segments().stream().mapToLong(CartJournal::segmentNumber).max().orElse(0) + 1;
+        open();
+    }
+
+    public synchronized void append(List<CartChange> changes) {
+        try {
+            for (CartChange change : changes) {
+                out.writeByte(change.getType().ordinal());
+                out.writeLong(change.getUserId());
+                out.writeLong(change.getProductId());
+                out.writeInt(change.getQuantity());
+                out.writeLong(change.getAddedAt());
+            }
+            // Hand the bytes to the OS so that they survive a crash of the JVM
+            out.flush();
+            if (fsync) {
+                file.getChannel().force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Starts a new segment and returns the number of the one just closed
+    public synchronized long rotate() {
+        try {
+            out.close();
+            long closed = segment;
+            segment++;
+            open();
+            return closed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Deletes all closed segments up to and including the given one
+    public synchronized void deleteUpTo(long lastSegment) {
+        for (Path path : segments()) {
+            if (segmentNumber(path) <= lastSegment && segmentNumber(path) != segment) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    // Every change of the closed segments, oldest first
+    public synchronized List<CartChange> readClosedSegments() {
+        List<CartChange> changes = new ArrayList<>();
+        for (Path path : segments()) {
+            if (segmentNumber(path) == segment) {
+                continue;
+            }
+            try (InputStream is = Files.newInputStream(path);
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(is))) {
+                byte[] record = new byte[RECORD_SIZE];
+                while (true) {
+                    in.readFully(record);
+                    changes.add(decode(record));
+                }
+            } catch (EOFException e) {
+                // End of segment, or a partially written last record
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return changes;
+    }
+
+    public synchronized void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void open() throws IOException {
+        file = new FileOutputStream(directory.resolve(PREFIX + segment + SUFFIX).toFile(), true);
+        out = new DataOutputStream(new BufferedOutputStream(file, 8192));
+    }
+
+    private static CartChange decode(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        CartChange.Type type = CartChange.Type.values()[buffer.get()];
+        long userId = buffer.getLong();
+        long productId = buffer.getLong();
+        int quantity = buffer.getInt();
+        long addedAt = buffer.getLong();
+        return type == CartChange.Type.CLEAR
+                ? CartChange.clear(userId)
+                : CartChange.set(userId, productId, quantity, addedAt);
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
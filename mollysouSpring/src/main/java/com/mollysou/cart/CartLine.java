@@ -0,0 +1,26 @@
+package com.mollysou.cart;
+
+// One product line of an in-memory cart. The row id is only known for lines loaded from the database.
+public class CartLine {
+
+    private final Long id;
+    private final long productId;
+    private final int quantity;
+    private final long addedAt;
+
+    public CartLine(Long id, long productId, int quantity, long addedAt) {
+        this.id = id;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.addedAt = addedAt;
+    }
+
+    public Long getId() { return id; }
+
+    public long getProductId() { return productId; }
+
+    public int getQuantity() { return quantity; }
+
+    // Epoch millis
+    public long getAddedAt() { return addedAt; }
+}
@@ -0,0 +1,332 @@
+package com.mollysou.cart;
+
+import com.mollysou.stock.StockReservationService;
+import com.mollysou.timer.HierarchicalTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Write-behind store of user carts. A cart is loaded once and then read and changed in
+// memory; every change is journaled before it is acknowledged and written to the database
+// by a periodic flush, coalesced per line and batched across users. Changes still in the
+// journal after a crash are replayed into the database at startup. Lines of loaded carts
+// expire lineTtlMs after they were added; their deadlines are kept in a timing wheel. A
+// loaded cart holds stock for its lines: the holds are taken when the cart is loaded and
+// given back when it is evicted.
+@Component
+public class CartStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CartStore.class);
+
+    @Value("${mollysou.cart.journal-dir:data}")
+    private String journalDirectory;
+
+    @Value("${mollysou.cart.journal-fsync:false}")
+    private boolean journalFsync;
+
+    @Value("${mollysou.cart.idle-eviction-ms:1800000}")
+    private long idleEvictionMs;
+
+    @Value("${mollysou.cart.line-ttl-ms:604800000}")
+    private long lineTtlMs;
+
+    @Value("${mollysou.cart.expiry-tick-ms:1000}")
+    private long expiryTickMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CartBatchWriter writer;
+
+    @Autowired
+    private StockReservationService stockReservations;
+
+    private final Map<Long, UserCart> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+    // Keeps database writes in journal order
+    private final Object flushLock = new Object();
+    private CartJournal journal;
+    private HierarchicalTimingWheel<LineDeadline> expiryWheel;
+
+    @PostConstruct
+    public void replayJournal() throws IOException {
+        expiryWheel = new HierarchicalTimingWheel<>(expiryTickMs, System.currentTimeMillis());
+        journal = new CartJournal(Paths.get(journalDirectory), journalFsync);
+        long lastSegment = journal.rotate();
+        List<CartChange> changes = journal.readClosedSegments();
+        if (!changes.isEmpty()) {
+            log.info("Replaying {} journaled cart changes", changes.size());
+            writer.write(changes);
+        }
+        journal.deleteUpTo(lastSegment);
+    }
+
+    // Runs the action on the user's cart under the cart's lock and returns its result
+    public <T> T read(Long userId, Function<UserCart, T> action) {
+        while (true) {
+            UserCart cart = load(userId);
+            synchronized (cart) {
+                if (cart.evicted) {
+                    continue;
+                }
+                cart.lastAccess = System.currentTimeMillis();
+                return action.apply(cart);
+            }
+        }
+    }
+
+    // Same as read; changes made by the action are journaled before this method returns.
+    // The action must validate before it changes anything, so that it never fails halfway.
+    public <T> T update(Long userId, Function<UserCart, T> action) {
+        while (true) {
+            UserCart cart = load(userId);
+            synchronized (cart) {
+                if (cart.evicted) {
+                    continue;
+                }
+                cart.lastAccess = System.currentTimeMillis();
+                T result = action.apply(cart);
+                List<CartChange> changes = cart.drainPending();
+                if (!changes.isEmpty()) {
+                    // Marked before journaling, so a flush that rotates the journal past
+                    // these records always sees the user as dirty
+                    dirtyUsers.add(userId);
+                    journal.append(changes);
+                    trackExpiry(cart, changes);
+                }
+                return result;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mollysou.cart.flush-delay-ms:1000}")
+    public void flush() {
+        if (dirtyUsers.isEmpty()) {
+            return;
+        }
+        synchronized (flushLock) {
+            long lastSegment = journal.rotate();
+            List<UserCart> flushed = new ArrayList<>();
+            List<CartChange> changes = new ArrayList<>();
+            for (Long userId : dirtyUsers) {
+                dirtyUsers.remove(userId);
+                UserCart cart = carts.get(userId);
+                if (cart == null) {
+                    continue;
+                }
+                synchronized (cart) {
+                    changes.addAll(cart.takeChanges());
+                }
+                flushed.add(cart);
+            }
+            if (!write(flushed, changes)) {
+                return;
+            }
+            journal.deleteUpTo(lastSegment);
+        }
+    }
+
+    // Writes one user's pending changes now, e.g. before the cart is read by a checkout.
+    // False if the write failed; the changes stay journaled and are retried by the next flush.
+    public boolean flush(Long userId) {
+        synchronized (flushLock) {
+            UserCart cart = carts.get(userId);
+            if (cart == null || !dirtyUsers.remove(userId)) {
+                return true;
+            }
+            List<CartChange> changes;
+            synchronized (cart) {
+                changes = cart.takeChanges();
+            }
+            return write(List.of(cart), changes);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mollysou.cart.eviction-delay-ms:60000}")
+    public void evictIdleCarts() {
+        long cutoff = System.currentTimeMillis() - idleEvictionMs;
+        // Holding the flush lock ensures no write of an evicted cart is still in flight
+        synchronized (flushLock) {
+            for (UserCart cart : carts.values()) {
+                synchronized (cart) {
+                    // Carts with unwritten changes stay until the next flush
+                    if (cart.lastAccess < cutoff && !cart.isDirty()) {
+                        cart.evicted = true;
+                        carts.remove(cart.getUserId(), cart);
+                        cart.expiryTimers.values().forEach(expiryWheel::cancel);
+                        cart.expiryTimers.clear();
+                        stockReservations.releaseAll(cart.getUserId(), cart.getLines().stream()
+                                .map(CartLine::getProductId)
+                                .toList());
+                    }
+                }
+            }
+        }
+    }
+
+    // Removes the lines of loaded carts whose deadline has passed. onExpired is called under
+    // the cart's lock for every removed line; the removal is written by the next flush.
+    public int expireLines(long now, BiConsumer<Long, CartLine> onExpired) {
+        Map<Long, List<LineDeadline>> expiredByUser = expiryWheel.advance(now).stream()
+                .collect(Collectors.groupingBy(LineDeadline::userId));
+        int[] expired = {0};
+        expiredByUser.forEach((userId, deadlines) -> {
+            if (!carts.containsKey(userId)) {
+                return;
+            }
+            update(userId, cart -> {
+                for (LineDeadline deadline : deadlines) {
+                    CartLine line = cart.getLine(deadline.productId());
+                    // A line removed and added again since has a timer of its own
+                    if (line == null || line.getAddedAt() != deadline.addedAt()) {
+                        continue;
+                    }
+                    cart.expiryTimers.remove(deadline.productId());
+                    onExpired.accept(userId, line);
+                    cart.setQuantity(deadline.productId(), 0);
+                    expired[0]++;
+                }
+                return null;
+            });
+        });
+        return expired[0];
+    }
+
+    public long getLineTtlMs() {
+        return lineTtlMs;
+    }
+
+    // A loaded cart's lines are expired by the timing wheel and written by the flush; its rows
+    // must not be deleted behind its back
+    public boolean isLoaded(long userId) {
+        return carts.containsKey(userId);
+    }
+
+    public int getTrackedLineCount() {
+        return expiryWheel.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        journal.close();
+    }
+
+    private boolean write(List<UserCart> carts, List<CartChange> changes) {
+        try {
+            writer.write(changes);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Cart flush failed, will retry", e);
+            for (UserCart cart : carts) {
+                synchronized (cart) {
+                    cart.restoreChanges(changes.stream()
+                            .filter(change -> change.getUserId() == cart.getUserId())
+                            .toList());
+                }
+                dirtyUsers.add(cart.getUserId());
+            }
+            return false;
+        }
+    }
+
+    private UserCart load(Long userId) {
+        UserCart cart = carts.get(userId);
+        if (cart != null) {
+            return cart;
+        }
+        // One statement checks the user and reads the lines: no row means no such user,
+        // a row without a cart id means an empty cart
+        List<CartLine> rows = jdbcTemplate.query(
+                "SELECT c.id, c.product_id, c.quantity, c.added_at FROM users u "
+                        + "LEFT JOIN cart c ON c.user_id = u.id WHERE u.id = ? ORDER BY c.id",
+                (rs, rowNum) -> {
+                    long id = rs.getLong("id");
+                    if (rs.wasNull()) {
+                        return null;
+                    }
+                    Timestamp addedAt = rs.getTimestamp("added_at");
+                    return new CartLine(id, rs.getLong("product_id"), rs.getInt("quantity"),
+                            addedAt != null ? addedAt.getTime() : 0);
+                },
+                userId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("User not found");
+        }
+        List<CartLine> lines = rows.stream().filter(Objects::nonNull).toList();
+        UserCart loaded = new UserCart(userId, lines);
+        UserCart existing = carts.putIfAbsent(userId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (loaded) {
+            stockReservations.load(lines.stream().map(CartLine::getProductId).toList());
+            for (CartLine line : loaded.getLines()) {
+                scheduleExpiry(loaded, line);
+                // Holds are set to the line's quantity, so one already set by a change made
+                // since the cart was published is left as it is. A line that cannot be held
+                // again is kept, and listed as not reserved.
+                if (!stockReservations.hold(userId, line.getProductId(), line.getQuantity())) {
+                    log.warn("Could not hold {} of product {} for the cart of user {}",
+                            line.getQuantity(), line.getProductId(), userId);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    // Keeps the cart's timers in step with the changes just applied to it
+    private void trackExpiry(UserCart cart, List<CartChange> changes) {
+        for (CartChange change : changes) {
+            if (change.getType() == CartChange.Type.CLEAR) {
+                cart.expiryTimers.values().forEach(expiryWheel::cancel);
+                cart.expiryTimers.clear();
+                continue;
+            }
+            CartLine line = cart.getLine(change.getProductId());
+            if (line != null) {
+                scheduleExpiry(cart, line);
+            } else {
+                expiryWheel.cancel(cart.expiryTimers.remove(change.getProductId()));
+            }
+        }
+    }
+
+    private void scheduleExpiry(UserCart cart, CartLine line) {
+        HierarchicalTimingWheel.Timer<LineDeadline> current = cart.expiryTimers.get(line.getProductId());
+        if (current != null) {
+            if (current.getValue().addedAt() == line.getAddedAt()) {
+                return;
+            }
+            // Removed and added again within one update
+            expiryWheel.cancel(current);
+        }
+        // Rows written without an addedAt get a full TTL from the time they are loaded
+        long addedAt = line.getAddedAt() > 0 ? line.getAddedAt() : System.currentTimeMillis();
+        cart.expiryTimers.put(line.getProductId(), expiryWheel.schedule(
+                new LineDeadline(cart.getUserId(), line.getProductId(), line.getAddedAt()), addedAt + lineTtlMs));
+    }
+
+    record LineDeadline(long userId, long productId, long addedAt) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.mollysou.cart;
+
+import com.mollysou.timer.HierarchicalTimingWheel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// In-memory cart of one user. Not thread-safe: CartStore only touches it while holding
+// its monitor, which makes every cart a single-writer aggregate.
+public class UserCart {
+
+    private final long userId;
+    private final Map<Long, CartLine> lines = new LinkedHashMap<>();
+
+    // Changes not yet journaled, and products changed since the last database write
+    private final List<CartChange> pending = new ArrayList<>();
+    private final Set<Long> dirtyProducts = new LinkedHashSet<>();
+    private boolean cleared;
+
+    long lastAccess = System.currentTimeMillis();
+    boolean evicted;
+    // Expiry deadline of each line, kept in CartStore's timing wheel
+    final Map<Long, HierarchicalTimingWheel.Timer<CartStore.LineDeadline>> expiryTimers = new HashMap<>();
+
+    UserCart(long userId, List<CartLine> persistedLines) {
+        this.userId = userId;
+        for (CartLine line : persistedLines) {
+            lines.put(line.getProductId(), line);
+        }
+    }
+
+    public long getUserId() { return userId; }
+
+    public CartLine getLine(long productId) {
+        return lines.get(productId);
+    }
+
+    public Collection<CartLine> getLines() {
+        return lines.values();
+    }
+
+    public int getQuantity(long productId) {
+        CartLine line = lines.get(productId);
+        return line != null ? line.getQuantity() : 0;
+    }
+
+    public int size() {
+        return lines.size();
+    }
+
+    // quantity <= 0 removes the line
+    public void setQuantity(long productId, int quantity) {
+        CartLine existing = lines.get(productId);
+        if (quantity <= 0) {
+            if (existing == null) {
+                return;
+            }
+            lines.remove(productId);
+            quantity = 0;
+        } else {
+            long addedAt = existing != null ? existing.getAddedAt() : System.currentTimeMillis();
+            Long id = existing != null ? existing.getId() : null;
+            lines.put(productId, new CartLine(id, productId, quantity, addedAt));
+        }
+        CartLine line = lines.get(productId);
+        pending.add(CartChange.set(userId, productId, quantity, line != null ? line.getAddedAt() : 0));
+        dirtyProducts.add(productId);
+    }
+
+    public void clear() {
+        if (lines.isEmpty() && !cleared && dirtyProducts.isEmpty()) {
+            return;
+        }
+        lines.clear();
+        dirtyProducts.clear();
+        cleared = true;
+        pending.add(CartChange.clear(userId));
+    }
+
+    List<CartChange> drainPending() {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        List<CartChange> drained = new ArrayList<>(pending);
+        pending.clear();
+        return drained;
+    }
+
+    boolean isDirty() {
+        return cleared || !dirtyProducts.isEmpty();
+    }
+
+    // Net changes since the last write: a clear, then the current quantity of every touched product
+    List<CartChange> takeChanges() {
+        List<CartChange> changes = new ArrayList<>();
+        if (cleared) {
+            changes.add(CartChange.clear(userId));
+        }
+        for (Long productId : dirtyProducts) {
+            CartLine line = lines.get(productId);
+            changes.add(line != null
+                    ? CartChange.set(userId, productId, line.getQuantity(), line.getAddedAt())
+                    : CartChange.set(userId, productId, 0, 0));
+        }
+        cleared = false;
+        dirtyProducts.clear();
+        return changes;
+    }
+
+    // Puts back changes whose write failed, unless newer changes already supersede them
+    void restoreChanges(List<CartChange> changes) {
+        for (CartChange change : changes) {
+            if (change.getType() == CartChange.Type.CLEAR) {
+                cleared = true;
+            } else {
+                dirtyProducts.add(change.getProductId());
+            }
+        }
+    }
+}
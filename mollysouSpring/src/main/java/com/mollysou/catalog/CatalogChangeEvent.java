@@ -0,0 +1,34 @@
+package com.mollysou.catalog;
+
+public class CatalogChangeEvent {
+
+    public enum Kind { CREATED, UPDATED, DELETED }
+
+    private final Object entity;
+    private final Kind kind;
+
+    // Product only: category and availability before this change (null for creations)
+    private final Long previousCategoryId;
+    private final Boolean previousDisponible;
+
+    public CatalogChangeEvent(Object entity, Kind kind) {
+        this(entity, kind, null, null);
+    }
+
+    public CatalogChangeEvent(Object entity, Kind kind, Long previousCategoryId, Boolean previousDisponible) {
+        this.entity = entity;
+        this.kind = kind;
+        this.previousCategoryId = previousCategoryId;
+        this.previousDisponible = previousDisponible;
+    }
+
+    public Object getEntity() { return entity; }
+
+    public Kind getKind() { return kind; }
+
+    public boolean isDeleted() { return kind == Kind.DELETED; }
+
+    public Long getPreviousCategoryId() { return previousCategoryId; }
+
+    public Boolean getPreviousDisponible() { return previousDisponible; }
+}
@@ -0,0 +1,44 @@
+package com.mollysou.catalog;
+
+import com.mollysou.entities.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// Publishes a CatalogChangeEvent for every catalog row written through JPA.
+// Listeners use @TransactionalEventListener so they only see committed changes.
+@Component
+public class CatalogEntityListener {
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @PostPersist
+    public void onCreated(Object entity) {
+        publisher.publishEvent(new CatalogChangeEvent(entity, CatalogChangeEvent.Kind.CREATED));
+    }
+
+    @PostUpdate
+    public void onUpdated(Object entity) {
+        publish(entity, CatalogChangeEvent.Kind.UPDATED);
+    }
+
+    @PostRemove
+    public void onDeleted(Object entity) {
+        publish(entity, CatalogChangeEvent.Kind.DELETED);
+    }
+
+    // Entity listeners run before the entity's own callbacks, so the product
+    // still holds its previously loaded state at this point
+    private void publish(Object entity, CatalogChangeEvent.Kind kind) {
+        if (entity instanceof Product product) {
+            publisher.publishEvent(new CatalogChangeEvent(entity, kind,
+                    product.getLoadedCategoryId(), product.getLoadedDisponible()));
+        } else {
+            publisher.publishEvent(new CatalogChangeEvent(entity, kind));
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.mollysou.catalog;
+
+import com.mollysou.dto.CategoryDTO;
+import com.mollysou.dto.EventDTO;
+import com.mollysou.dto.ProductDTO;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read-only, memory-mapped view of a file written by CatalogSnapshotWriter. Column data
+// stays in the page cache outside the Java heap; rows are read through reusable
+// flyweight cursors and only turned into DTOs when a response needs them.
+public final class CatalogSnapshot {
+
+    static final int MAGIC = 0x4D534353; // "MSCS"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4 + 4 + 8 + 8 + 8 + 8;
+
+    // Bytes per row, summed over the columns of each table
+    static final int PRODUCT_ROW_SIZE = 8 + 8 + 8 + 8 + 4 + 4 + 4 + 4 + 4 + 1;
+    static final int CATEGORY_ROW_SIZE = 8 + 4 + 4 + 4 + 4;
+    static final int EVENT_ROW_SIZE = 8 + 8 + 8 + 8 + 4 + 4 + 4 + 4 + 4;
+
+    static final long NULL_LONG = Long.MIN_VALUE;
+    static final int NULL_INT = Integer.MIN_VALUE;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final long createdAt;
+    private final int productCount;
+    private final int categoryCount;
+    private final int eventCount;
+    private final int productsOffset;
+    private final int categoriesOffset;
+    private final int eventsOffset;
+    private final int stringsOffset;
+
+    private CatalogSnapshot(Path file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalStateException("Not a catalog snapshot: " + file);
+        }
+        this.createdAt = buffer.getLong(8);
+        this.productCount = buffer.getInt(16);
+        this.categoryCount = buffer.getInt(20);
+        this.eventCount = buffer.getInt(24);
+        this.productsOffset = Math.toIntExact(buffer.getLong(28));
+        this.categoriesOffset = Math.toIntExact(buffer.getLong(36));
+        this.eventsOffset = Math.toIntExact(buffer.getLong(44));
+        this.stringsOffset = Math.toIntExact(buffer.getLong(52));
+    }
+
+    public static CatalogSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CatalogSnapshot(file, buffer);
+        }
+    }
+
+    public Path getFile() { return file; }
+
+    public long getCreatedAt() { return createdAt; }
+
+    public int getProductCount() { return productCount; }
+
+    public int getCategoryCount() { return categoryCount; }
+
+    public int getEventCount() { return eventCount; }
+
+    public ProductCursor products() {
+        return new ProductCursor();
+    }
+
+    public CategoryCursor categories() {
+        return new CategoryCursor();
+    }
+
+    public EventCursor events() {
+        return new EventCursor();
+    }
+
+    public List<ProductDTO> availableProducts() {
+        List<ProductDTO> result = new ArrayList<>();
+        ProductCursor cursor = products();
+        for (int row = 0; row < productCount; row++) {
+            cursor.moveTo(row);
+            if (Boolean.TRUE.equals(cursor.disponible())) {
+                result.add(cursor.toDTO());
+            }
+        }
+        return result;
+    }
+
+    public List<ProductDTO> productsByCategory(long categoryId) {
+        List<ProductDTO> result = new ArrayList<>();
+        ProductCursor cursor = products();
+        for (int row = 0; row < productCount; row++) {
+            cursor.moveTo(row);
+            if (cursor.categoryIdRaw() == categoryId) {
+                result.add(cursor.toDTO());
+            }
+        }
+        return result;
+    }
+
+    // Binary search over the sorted id column; null when absent
+    public ProductDTO findProduct(long id) {
+        int lo = 0;
+        int hi = productCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long midId = buffer.getLong(productsOffset + mid * 8);
+            if (midId < id) {
+                lo = mid + 1;
+            } else if (midId > id) {
+                hi = mid - 1;
+            } else {
+                ProductCursor cursor = products();
+                cursor.moveTo(mid);
+                return cursor.toDTO();
+            }
+        }
+        return null;
+    }
+
+    public List<CategoryDTO> allCategories() {
+        List<CategoryDTO> result = new ArrayList<>(categoryCount);
+        CategoryCursor cursor = categories();
+        for (int row = 0; row < categoryCount; row++) {
+            cursor.moveTo(row);
+            result.add(cursor.toDTO());
+        }
+        return result;
+    }
+
+    public List<EventDTO> events(int limit) {
+        int count = Math.min(limit, eventCount);
+        List<EventDTO> result = new ArrayList<>(count);
+        EventCursor cursor = events();
+        for (int row = 0; row < count; row++) {
+            cursor.moveTo(row);
+            result.add(cursor.toDTO());
+        }
+        return result;
+    }
+
+    private String string(int ref) {
+        if (ref == NULL_INT) {
+            return null;
+        }
+        int position = stringsOffset + ref;
+        int length = buffer.getInt(position);
+        byte[] bytes = new byte[length];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static BigDecimal amount(long cents) {
+        return cents == NULL_LONG ? null : BigDecimal.valueOf(cents, 2);
+    }
+
+    private static Double nullableDouble(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static Integer nullableInt(int value) {
+        return value == NULL_INT ? null : value;
+    }
+
+    public final class ProductCursor {
+        private int row;
+
+        public void moveTo(int row) { this.row = row; }
+
+        // Columns are laid out one after the other; "start" is the summed width of the
+        // columns before this one, so the column begins at start * rowCount
+        private int column(int start, int width) {
+            return productsOffset + productCount * start + row * width;
+        }
+
+        public long id() { return buffer.getLong(column(0, 8)); }
+
+        long categoryIdRaw() { return buffer.getLong(column(8, 8)); }
+
+        public Long categoryId() {
+            long value = categoryIdRaw();
+            return value == NULL_LONG ? null : value;
+        }
+
+        public BigDecimal prix() { return amount(buffer.getLong(column(16, 8))); }
+
+        public Double rating() { return nullableDouble(buffer.getDouble(column(24, 8))); }
+
+        public Integer stock() { return nullableInt(buffer.getInt(column(32, 4))); }
+
+        public String nom() { return string(buffer.getInt(column(36, 4))); }
+
+        public String description() { return string(buffer.getInt(column(40, 4))); }
+
+        public String image() { return string(buffer.getInt(column(44, 4))); }
+
+        public String categoryNom() { return string(buffer.getInt(column(48, 4))); }
+
+        public Boolean disponible() {
+            byte value = buffer.get(column(52, 1));
+            return value == 2 ? null : value == 1;
+        }
+
+        public ProductDTO toDTO() {
+            return new ProductDTO(id(), nom(), description(), prix(), image(), stock(), rating(),
+                    categoryNom(), categoryId(), disponible());
+        }
+    }
+
+    public final class CategoryCursor {
+        private int row;
+
+        public void moveTo(int row) { this.row = row; }
+
+        private int column(int start, int width) {
+            return categoriesOffset + categoryCount * start + row * width;
+        }
+
+        public long id() { return buffer.getLong(column(0, 8)); }
+
+        public CategoryDTO toDTO() {
+            CategoryDTO dto = new CategoryDTO();
+            dto.setId(id());
+            dto.setNom(string(buffer.getInt(column(8, 4))));
+            dto.setIcon(string(buffer.getInt(column(12, 4))));
+            dto.setColor(string(buffer.getInt(column(16, 4))));
+            dto.setDescription(string(buffer.getInt(column(20, 4))));
+            return dto;
+        }
+    }
+
+    public final class EventCursor {
+        private int row;
+
+        public void moveTo(int row) { this.row = row; }
+
+        private int column(int start, int width) {
+            return eventsOffset + eventCount * start + row * width;
+        }
+
+        public long id() { return buffer.getLong(column(0, 8)); }
+
+        public EventDTO toDTO() {
+            EventDTO dto = new EventDTO();
+            dto.setId(id());
+            long epochDay = buffer.getLong(column(8, 8));
+            dto.setDate(epochDay == NULL_LONG ? null : LocalDate.ofEpochDay(epochDay));
+            dto.setPrix(amount(buffer.getLong(column(16, 8))));
+            dto.setRating(nullableDouble(buffer.getDouble(column(24, 8))));
+            dto.setTitre(string(buffer.getInt(column(32, 4))));
+            dto.setDescription(string(buffer.getInt(column(36, 4))));
+            dto.setImage(string(buffer.getInt(column(40, 4))));
+            dto.setLieu(string(buffer.getInt(column(44, 4))));
+            dto.setType(string(buffer.getInt(column(48, 4))));
+            return dto;
+        }
+    }
+}
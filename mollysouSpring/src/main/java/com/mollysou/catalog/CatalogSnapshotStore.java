@@ -0,0 +1,193 @@
+package com.mollysou.catalog;
+
+import com.mollysou.dto.CategoryDTO;
+import com.mollysou.dto.EventDTO;
+import com.mollysou.dto.ProductDTO;
+import com.mollysou.entities.Category;
+import com.mollysou.entities.Event;
+import com.mollysou.repositories.CategoryRepository;
+import com.mollysou.repositories.EventRepository;
+import com.mollysou.repositories.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Owns the memory-mapped catalog snapshot. On startup the last snapshot written to disk is
+// mapped immediately so listings are served before the database is touched; a background
+// refresh then reloads the tables, writes a new snapshot and swaps it in. A snapshot is only
+// handed out while no catalog change has been committed since it was loaded, otherwise
+// callers fall back to the database until the next refresh.
+@Component
+public class CatalogSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotStore.class);
+
+    // Two files used in turn, so a new snapshot is never written over the one currently mapped
+    private static final String[] SLOTS = {"catalog-a.snapshot", "catalog-b.snapshot"};
+
+    @Value("${mollysou.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mollysou.snapshot.dir:data}")
+    private String directory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    private volatile CatalogSnapshot current;
+    // Catalog versions the current snapshot is known to match; -1 when it matches none
+    private volatile long catalogVersionAtLoad = -1;
+    private volatile long eventsVersionAtLoad = -1;
+    private volatile boolean refreshedSinceStart;
+
+    @PostConstruct
+    public void warmStart() {
+        if (!enabled) {
+            return;
+        }
+        CatalogSnapshot newest = null;
+        for (String slot : SLOTS) {
+            Path file = Paths.get(directory, slot);
+            if (!Files.exists(file)) {
+                continue;
+            }
+            try {
+                CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+                if (newest == null || snapshot.getCreatedAt() > newest.getCreatedAt()) {
+                    newest = snapshot;
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Ignoring unreadable catalog snapshot {}", file, e);
+            }
+        }
+        if (newest != null) {
+            // Served as-is until the first refresh replaces it with the database content
+            current = newest;
+            catalogVersionAtLoad = catalogVersion.version(CatalogVersion.Domain.CATALOG);
+            eventsVersionAtLoad = catalogVersion.version(CatalogVersion.Domain.EVENTS);
+            log.info("Mapped catalog snapshot {} ({} products, {} events)",
+                    newest.getFile(), newest.getProductCount(), newest.getEventCount());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${mollysou.snapshot.initial-delay-ms:0}",
+            fixedDelayString = "${mollysou.snapshot.refresh-delay-ms:30000}")
+    public void refreshIfStale() {
+        if (!enabled) {
+            return;
+        }
+        if (freshCatalog() == null || freshEvents() == null || !refreshedSinceStart) {
+            refresh();
+        }
+    }
+
+    public synchronized void refresh() {
+        // A warm-start file may be older than the database, unlike a snapshot loaded since
+        boolean replacingWarmStart = current != null && !refreshedSinceStart;
+        long catalogBefore = catalogVersion.version(CatalogVersion.Domain.CATALOG);
+        long eventsBefore = catalogVersion.version(CatalogVersion.Domain.EVENTS);
+
+        List<ProductDTO> products = productRepository.findAllDtos();
+        List<CategoryDTO> categories = categoryRepository.findAll().stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+        List<EventDTO> events = eventRepository.findByOrderByDateAsc().stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+
+        CatalogSnapshot snapshot;
+        try {
+            Path target = Paths.get(directory, nextSlot());
+            CatalogSnapshotWriter.write(target, products, categories, events);
+            snapshot = CatalogSnapshot.open(target);
+        } catch (IOException e) {
+            log.warn("Could not write catalog snapshot", e);
+            return;
+        }
+        current = snapshot;
+        refreshedSinceStart = true;
+
+        // Replacing a warm-start file may change what clients see, so the ETags move on.
+        // Otherwise the snapshot holds what the database served under the current versions,
+        // and bumping would only invalidate the other domain's ETags and cached responses
+        // on every change. Either way a domain only counts as fresh if nobody else changed
+        // its version while the tables were being read.
+        if (replacingWarmStart) {
+            long catalogAfter = catalogVersion.bump(CatalogVersion.Domain.CATALOG);
+            long eventsAfter = catalogVersion.bump(CatalogVersion.Domain.EVENTS);
+            catalogVersionAtLoad = catalogAfter == catalogBefore + 1 ? catalogAfter : -1;
+            eventsVersionAtLoad = eventsAfter == eventsBefore + 1 ? eventsAfter : -1;
+        } else {
+            catalogVersionAtLoad = catalogVersion.version(CatalogVersion.Domain.CATALOG) == catalogBefore
+                    ? catalogBefore : -1;
+            eventsVersionAtLoad = catalogVersion.version(CatalogVersion.Domain.EVENTS) == eventsBefore
+                    ? eventsBefore : -1;
+        }
+    }
+
+    // Snapshot usable for product and category reads, or null
+    public CatalogSnapshot freshCatalog() {
+        CatalogSnapshot snapshot = current;
+        return snapshot != null && catalogVersionAtLoad == catalogVersion.version(CatalogVersion.Domain.CATALOG)
+                ? snapshot : null;
+    }
+
+    // Snapshot usable for event reads, or null
+    public CatalogSnapshot freshEvents() {
+        CatalogSnapshot snapshot = current;
+        return snapshot != null && eventsVersionAtLoad == catalogVersion.version(CatalogVersion.Domain.EVENTS)
+                ? snapshot : null;
+    }
+
+    private String nextSlot() {
+        CatalogSnapshot snapshot = current;
+        if (snapshot != null && snapshot.getFile().getFileName().toString().equals(SLOTS[0])) {
+            return SLOTS[1];
+        }
+        return SLOTS[0];
+    }
+
+    private CategoryDTO toDTO(Category category) {
+        CategoryDTO dto = new CategoryDTO();
+        dto.setId(category.getId());
+        dto.setNom(category.getNom());
+        dto.setIcon(category.getIcon());
+        dto.setColor(category.getColor());
+        dto.setDescription(category.getDescription());
+        return dto;
+    }
+
+    private EventDTO toDTO(Event event) {
+        EventDTO dto = new EventDTO();
+        dto.setId(event.getId());
+        dto.setTitre(event.getTitre());
+        dto.setDescription(event.getDescription());
+        dto.setDate(event.getDate());
+        dto.setPrix(event.getPrix());
+        dto.setImage(event.getImage());
+        dto.setLieu(event.getLieu());
+        dto.setRating(event.getRating());
+        dto.setType(event.getType());
+        return dto;
+    }
+}
@@ -0,0 +1,144 @@
+package com.mollysou.catalog;
+
+import com.mollysou.dto.CategoryDTO;
+import com.mollysou.dto.EventDTO;
+import com.mollysou.dto.ProductDTO;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Writes the catalog as a columnar file: a fixed header, then for each table one
+// contiguous array per column, then a shared table of length-prefixed UTF-8 strings.
+// See CatalogSnapshot for the layout offsets.
+public final class CatalogSnapshotWriter {
+
+    private CatalogSnapshotWriter() {
+    }
+
+    public static void write(Path file, List<ProductDTO> products, List<CategoryDTO> categories,
+                             List<EventDTO> events) throws IOException {
+        // Products are sorted by id so that lookups can binary search the id column
+        List<ProductDTO> sortedProducts = products.stream()
+                .sorted(Comparator.comparing(ProductDTO::getId))
+                .toList();
+
+        StringTable strings = new StringTable();
+        int p = sortedProducts.size();
+        int c = categories.size();
+        int e = events.size();
+
+        long productsOffset = CatalogSnapshot.HEADER_SIZE;
+        long categoriesOffset = productsOffset + (long) p * CatalogSnapshot.PRODUCT_ROW_SIZE;
+        long eventsOffset = categoriesOffset + (long) c * CatalogSnapshot.CATEGORY_ROW_SIZE;
+        long stringsOffset = eventsOffset + (long) e * CatalogSnapshot.EVENT_ROW_SIZE;
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (OutputStream os = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+            out.writeInt(CatalogSnapshot.MAGIC);
+            out.writeInt(CatalogSnapshot.FORMAT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(p);
+            out.writeInt(c);
+            out.writeInt(e);
+            out.writeLong(productsOffset);
+            out.writeLong(categoriesOffset);
+            out.writeLong(eventsOffset);
+            out.writeLong(stringsOffset);
+
+            // Products
+            for (ProductDTO row : sortedProducts) out.writeLong(row.getId());
+            for (ProductDTO row : sortedProducts) out.writeLong(nullableLong(row.getCategoryId()));
+            for (ProductDTO row : sortedProducts) out.writeLong(cents(row.getPrix()));
+            for (ProductDTO row : sortedProducts) out.writeDouble(row.getRating() != null ? row.getRating() : Double.NaN);
+            for (ProductDTO row : sortedProducts) out.writeInt(nullableInt(row.getStock()));
+            for (ProductDTO row : sortedProducts) out.writeInt(strings.add(row.getNom()));
+            for (ProductDTO row : sortedProducts) out.writeInt(strings.add(row.getDescription()));
+            for (ProductDTO row : sortedProducts) out.writeInt(strings.add(row.getImage()));
+            for (ProductDTO row : sortedProducts) out.writeInt(strings.add(row.getCategoryNom()));
+            for (ProductDTO row : sortedProducts) out.writeByte(bool(row.getDisponible()));
+
+            // Categories
+            for (CategoryDTO row : categories) out.writeLong(row.getId());
+            for (CategoryDTO row : categories) out.writeInt(strings.add(row.getNom()));
+            for (CategoryDTO row : categories) out.writeInt(strings.add(row.getIcon()));
+            for (CategoryDTO row : categories) out.writeInt(strings.add(row.getColor()));
+            for (CategoryDTO row : categories) out.writeInt(strings.add(row.getDescription()));
+
+            // Events, kept in the listing order (date ascending)
+            for (EventDTO row : events) out.writeLong(row.getId());
+            for (EventDTO row : events) out.writeLong(row.getDate() != null ? row.getDate().toEpochDay() : CatalogSnapshot.NULL_LONG);
+            for (EventDTO row : events) out.writeLong(cents(row.getPrix()));
+            for (EventDTO row : events) out.writeDouble(row.getRating() != null ? row.getRating() : Double.NaN);
+            for (EventDTO row : events) out.writeInt(strings.add(row.getTitre()));
+            for (EventDTO row : events) out.writeInt(strings.add(row.getDescription()));
+            for (EventDTO row : events) out.writeInt(strings.add(row.getImage()));
+            for (EventDTO row : events) out.writeInt(strings.add(row.getLieu()));
+            for (EventDTO row : events) out.writeInt(strings.add(row.getType()));
+
+            strings.writeTo(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? CatalogSnapshot.NULL_LONG
+                : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static long nullableLong(Long value) {
+        return value == null ? CatalogSnapshot.NULL_LONG : value;
+    }
+
+    private static int nullableInt(Integer value) {
+        return value == null ? CatalogSnapshot.NULL_INT : value;
+    }
+
+    private static byte bool(Boolean value) {
+        return value == null ? (byte) 2 : value ? (byte) 1 : (byte) 0;
+    }
+
+    private static class StringTable {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        // Repeated values (category names, images, types) are stored once
+        private final Map<String, Integer> offsets = new HashMap<>();
+
+        int add(String value) throws IOException {
+            if (value == null) {
+                return CatalogSnapshot.NULL_INT;
+            }
+            Integer existing = offsets.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            int offset = out.size();
+            offsets.put(value, offset);
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+            return offset;
+        }
+
+        void writeTo(OutputStream target) throws IOException {
+            out.flush();
+            bytes.writeTo(target);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.mollysou.catalog;
+
+import com.mollysou.entities.Category;
+import com.mollysou.entities.Event;
+import com.mollysou.entities.Product;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Monotonic version and last-modified time of the catalog, bumped after every committed
+// change. Read endpoints derive strong ETags from it and answer conditional requests
+// before touching the database.
+@Component
+public class CatalogVersion {
+
+    public enum Domain {
+        // Products and categories share a version: product DTOs embed the category
+        // name and category DTOs embed product counts
+        CATALOG,
+        EVENTS
+    }
+
+    // Distinguishes ETags issued by different runs of the application
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong[] versions = new AtomicLong[Domain.values().length];
+    private final AtomicLong[] lastModified = new AtomicLong[Domain.values().length];
+
+    public CatalogVersion() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = new AtomicLong();
+            lastModified[i] = new AtomicLong(now);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Product || entity instanceof Category) {
+            bump(Domain.CATALOG);
+        } else if (entity instanceof Event) {
+            bump(Domain.EVENTS);
+        }
+    }
+
+    public long bump(Domain domain) {
+        lastModified[domain.ordinal()].set(System.currentTimeMillis());
+        return versions[domain.ordinal()].incrementAndGet();
+    }
+
+    public long version(Domain domain) {
+        return versions[domain.ordinal()].get();
+    }
+
+    public long lastModified(Domain domain) {
+        return lastModified[domain.ordinal()].get();
+    }
+
+    public String etag(Domain domain) {
+        return "\"" + bootId + "-" + domain.ordinal() + "-" + version(domain) + "\"";
+    }
+
+    // Sets ETag / Last-Modified on the response and returns true (with a 304 status)
+    // when the client copy is current. Must run before the data is read, so that the
+    // tag never describes newer data than the body it is sent with.
+    public boolean checkNotModified(WebRequest request, Domain domain) {
+        return request.checkNotModified(etag(domain), lastModified(domain));
+    }
+}
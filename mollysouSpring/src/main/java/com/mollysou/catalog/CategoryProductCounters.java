@@ -0,0 +1,84 @@
+package com.mollysou.catalog;
+
+import com.mollysou.entities.Product;
+import com.mollysou.repositories.CategoryProductCount;
+import com.mollysou.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Denormalized per-category product counts (total and available). Seeded once from a
+// grouped aggregate query and then maintained incrementally from committed product changes.
+@Component
+public class CategoryProductCounters {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private volatile Map<Long, Counts> counts = new ConcurrentHashMap<>();
+    private volatile boolean initialized;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        Map<Long, Counts> fresh = new ConcurrentHashMap<>();
+        for (CategoryProductCount row : productRepository.countByCategory()) {
+            Counts c = fresh.computeIfAbsent(row.getCategoryId(), id -> new Counts());
+            c.total.set(row.getTotal() != null ? row.getTotal().intValue() : 0);
+            c.available.set(row.getAvailable() != null ? row.getAvailable().intValue() : 0);
+        }
+        counts = fresh;
+        initialized = true;
+    }
+
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    public int getTotal(Long categoryId) {
+        Counts c = counts.get(categoryId);
+        return c != null ? c.total.get() : 0;
+    }
+
+    public int getAvailable(Long categoryId) {
+        Counts c = counts.get(categoryId);
+        return c != null ? c.available.get() : 0;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (!(event.getEntity() instanceof Product product)) {
+            return;
+        }
+
+        // Remove the contribution of the previous state, then add the new one
+        if (event.getKind() != CatalogChangeEvent.Kind.CREATED) {
+            add(event.getPreviousCategoryId(), event.getPreviousDisponible(), -1);
+        }
+        if (!event.isDeleted()) {
+            Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+            add(categoryId, product.getDisponible(), 1);
+        }
+    }
+
+    private void add(Long categoryId, Boolean disponible, int delta) {
+        if (categoryId == null) {
+            return;
+        }
+        Counts c = counts.computeIfAbsent(categoryId, id -> new Counts());
+        c.total.addAndGet(delta);
+        if (Boolean.TRUE.equals(disponible)) {
+            c.available.addAndGet(delta);
+        }
+    }
+
+    private static class Counts {
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger available = new AtomicInteger();
+    }
+}
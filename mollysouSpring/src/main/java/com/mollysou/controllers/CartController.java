@@ -2,6 +2,7 @@ package com.mollysou.controllers;
 
 import com.mollysou.dto.CartDTO;
 import com.mollysou.dto.AddToCartDTO;
+import com.mollysou.dto.CartOperationDTO;
 import com.mollysou.services.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -27,6 +28,18 @@ public class CartController {
         }
     }
 
+    // Applies several add/set/remove operations in one round trip and returns the resulting cart
+    @PatchMapping("/{userId}")
+    public ResponseEntity<List<CartDTO>> applyCartOperations(@PathVariable Long userId,
+                                                             @RequestBody List<CartOperationDTO> operations) {
+        try {
+            List<CartDTO> cartItems = cartService.applyOperations(userId, operations);
+            return ResponseEntity.ok(cartItems);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/{userId}/add")
     public ResponseEntity<CartDTO> addToCart(@PathVariable Long userId, @RequestBody AddToCartDTO addToCartDTO) {
         try {
@@ -1,10 +1,12 @@
 package com.mollysou.controllers;
 
+import com.mollysou.catalog.CatalogVersion;
 import com.mollysou.dto.CategoryDTO;
 import com.mollysou.services.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,14 +18,23 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private CatalogVersion catalogVersion;
+
     @GetMapping
-    public ResponseEntity<List<CategoryDTO>> getAllCategories() {
+    public ResponseEntity<List<CategoryDTO>> getAllCategories(WebRequest request) {
+        if (catalogVersion.checkNotModified(request, CatalogVersion.Domain.CATALOG)) {
+            return null;
+        }
         List<CategoryDTO> categories = categoryService.getAllCategories();
         return ResponseEntity.ok(categories);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<CategoryDTO> getCategoryById(@PathVariable Long id, WebRequest request) {
+        if (catalogVersion.checkNotModified(request, CatalogVersion.Domain.CATALOG)) {
+            return null;
+        }
         CategoryDTO category = categoryService.getCategoryById(id);
         return category != null ? ResponseEntity.ok(category) : ResponseEntity.notFound().build();
     }
@@ -1,10 +1,13 @@
 package com.mollysou.controllers;
 
+import com.mollysou.catalog.CatalogVersion;
+import com.mollysou.dto.BatchResultDTO;
 import com.mollysou.dto.EventDTO;
 import com.mollysou.services.EventService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,14 +19,32 @@ public class EventController {
     @Autowired
     private EventService eventService;
 
+    @Autowired
+    private CatalogVersion catalogVersion;
+
     @GetMapping
-    public ResponseEntity<List<EventDTO>> getAllEvents() {
+    public ResponseEntity<List<EventDTO>> getAllEvents(WebRequest request) {
+        if (catalogVersion.checkNotModified(request, CatalogVersion.Domain.EVENTS)) {
+            return null;
+        }
         List<EventDTO> events = eventService.getAllEvents();
         return ResponseEntity.ok(events);
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchResultDTO<EventDTO>> getEventsByIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(eventService.getEventsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/popular")
-    public ResponseEntity<List<EventDTO>> getPopularEvents() {
+    public ResponseEntity<List<EventDTO>> getPopularEvents(WebRequest request) {
+        if (catalogVersion.checkNotModified(request, CatalogVersion.Domain.EVENTS)) {
+            return null;
+        }
         List<EventDTO> events = eventService.getPopularEvents();
         return ResponseEntity.ok(events);
     }
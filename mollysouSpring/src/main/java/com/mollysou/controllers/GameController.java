@@ -0,0 +1,65 @@
+package com.mollysou.controllers;
+
+import com.mollysou.dto.GameResultDTO;
+import com.mollysou.dto.GameResultStatusDTO;
+import com.mollysou.ratelimit.RateLimiters;
+import com.mollysou.services.GameResultService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/games")
+@CrossOrigin(origins = "*")
+public class GameController {
+
+    @Autowired
+    private GameResultService gameResultService;
+
+    @Autowired
+    private RateLimiters rateLimiters;
+
+    // One status per result, in order; submitting the same results again is safe
+    @PostMapping("/results")
+    public ResponseEntity<List<GameResultStatusDTO>> submitResults(@RequestBody List<GameResultDTO> results) {
+        long waitMs = acquire(results);
+        if (waitMs > 0) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", String.valueOf((waitMs + 999) / 1000))
+                    .build();
+        }
+        try {
+            return ResponseEntity.ok(gameResultService.submit(results));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // The users are in the body, so this limiter runs here rather than in an interceptor:
+    // each user pays one token per result of theirs in the batch. Tokens already taken for
+    // other users of a rejected batch are not given back.
+    private long acquire(List<GameResultDTO> results) {
+        if (results == null) {
+            return 0;
+        }
+        Map<Long, Integer> countByUser = new LinkedHashMap<>();
+        for (GameResultDTO result : results) {
+            if (result != null && result.getUserId() != null) {
+                countByUser.merge(result.getUserId(), 1, Integer::sum);
+            }
+        }
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, Integer> entry : countByUser.entrySet()) {
+            long waitMs = rateLimiters.getGameResults().tryAcquire(entry.getKey(), entry.getValue(), now);
+            if (waitMs > 0) {
+                return waitMs;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.mollysou.controllers;
+
+import com.mollysou.dto.LeaderboardEntryDTO;
+import com.mollysou.services.LeaderboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@CrossOrigin(origins = "*")
+public class LeaderboardController {
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    // window: "day" or "week" for points earned over it, omitted for all-time XP
+    @GetMapping("/top")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getTop(@RequestParam(required = false) String window,
+                                                            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(leaderboardService.getTop(window, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<LeaderboardEntryDTO> getUserPosition(@PathVariable Long userId,
+                                                               @RequestParam(required = false) String window) {
+        try {
+            return ResponseEntity.ok(leaderboardService.getUserPosition(window, userId));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/user/{userId}/around")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getAround(@PathVariable Long userId,
+                                                               @RequestParam(required = false) String window,
+                                                               @RequestParam(required = false) Integer before,
+                                                               @RequestParam(required = false) Integer after) {
+        try {
+            return ResponseEntity.ok(leaderboardService.getAround(window, userId, before, after));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
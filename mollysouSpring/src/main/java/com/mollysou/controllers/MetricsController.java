@@ -0,0 +1,44 @@
+package com.mollysou.controllers;
+
+import com.mollysou.dto.CartExpiryMetricsDTO;
+import com.mollysou.dto.PushMetricsDTO;
+import com.mollysou.dto.RateLimitMetricsDTO;
+import com.mollysou.ratelimit.RateLimiters;
+import com.mollysou.services.CartExpiryService;
+import com.mollysou.services.PushService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "*")
+public class MetricsController {
+
+    @Autowired
+    private CartExpiryService cartExpiryService;
+
+    @Autowired
+    private PushService pushService;
+
+    @Autowired
+    private RateLimiters rateLimiters;
+
+    @GetMapping("/cart-expiry")
+    public ResponseEntity<CartExpiryMetricsDTO> getCartExpiryMetrics() {
+        return ResponseEntity.ok(cartExpiryService.getMetrics());
+    }
+
+    @GetMapping("/push")
+    public ResponseEntity<PushMetricsDTO> getPushMetrics() {
+        return ResponseEntity.ok(pushService.getMetrics());
+    }
+
+    // Requests let through and shed (answered 429) by each reward endpoint's limiter
+    @GetMapping("/rate-limits")
+    public ResponseEntity<List<RateLimitMetricsDTO>> getRateLimitMetrics() {
+        return ResponseEntity.ok(rateLimiters.getMetrics());
+    }
+}
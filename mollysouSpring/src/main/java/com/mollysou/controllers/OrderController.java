@@ -0,0 +1,67 @@
+package com.mollysou.controllers;
+
+import com.mollysou.dto.OrderDTO;
+import com.mollysou.dto.OrderItemDTO;
+import com.mollysou.dto.OrderPageDTO;
+import com.mollysou.dto.OrderSummaryDTO;
+import com.mollysou.services.CheckoutService;
+import com.mollysou.services.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/orders")
+@CrossOrigin(origins = "*")
+public class OrderController {
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private OrderService orderService;
+
+    // Retrying with the same Idempotency-Key returns the order created by the first attempt.
+    // redeemPoints pays part of the order with points (100 points per DT).
+    @PostMapping("/checkout/{userId}")
+    public ResponseEntity<OrderDTO> checkout(@PathVariable Long userId,
+                                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                             @RequestParam(defaultValue = "0") int redeemPoints) {
+        try {
+            OrderDTO order = checkoutService.checkout(userId, idempotencyKey, redeemPoints);
+            return ResponseEntity.ok(order);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Newest first; pass nextCursor back to get the following page. Items are only
+    // included with expand=items.
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<OrderPageDTO> getOrderHistory(@PathVariable Long userId,
+                                                        @RequestParam(required = false) Integer size,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) String expand) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderHistory(userId, size, cursor, "items".equals(expand)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/user/{userId}/summary")
+    public ResponseEntity<OrderSummaryDTO> getOrderSummary(@PathVariable Long userId) {
+        return ResponseEntity.ok(orderService.getOrderSummary(userId));
+    }
+
+    @GetMapping("/user/{userId}/{orderId}/items")
+    public ResponseEntity<List<OrderItemDTO>> getOrderItems(@PathVariable Long userId, @PathVariable Long orderId) {
+        try {
+            return ResponseEntity.ok(orderService.getOrderItems(userId, orderId));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.mollysou.controllers;
+
+import com.mollysou.dto.PointsBalanceDTO;
+import com.mollysou.dto.PointsHistoryPageDTO;
+import com.mollysou.services.PointsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/points")
+@CrossOrigin(origins = "*")
+public class PointsController {
+
+    @Autowired
+    private PointsService pointsService;
+
+    // Newest entries first; pass nextCursor back to get the following page
+    @GetMapping("/{userId}/history")
+    public ResponseEntity<PointsHistoryPageDTO> getHistory(@PathVariable Long userId,
+                                                           @RequestParam(required = false) Integer size,
+                                                           @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(pointsService.getHistory(userId, size, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{userId}/balance")
+    public ResponseEntity<PointsBalanceDTO> getBalance(@PathVariable Long userId) {
+        return ResponseEntity.ok(pointsService.getBalance(userId));
+    }
+}
@@ -1,10 +1,17 @@
 package com.mollysou.controllers;
 
+import com.mollysou.catalog.CatalogVersion;
+import com.mollysou.dto.BatchResultDTO;
 import com.mollysou.dto.ProductDTO;
+import com.mollysou.dto.ProductFilterResultDTO;
+import com.mollysou.dto.ProductPageDTO;
+import com.mollysou.search.ProductFacetIndex;
+import com.mollysou.services.ProductFilterService;
 import com.mollysou.services.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,18 +23,98 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductFilterService productFilterService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchResultDTO<ProductDTO>> getProductsByIds(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(productService.getProductsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<ProductDTO>> getProductsByCategory(@PathVariable Long categoryId) {
+    public ResponseEntity<List<ProductDTO>> getProductsByCategory(@PathVariable Long categoryId, WebRequest request) {
+        if (catalogVersion.checkNotModified(request, CatalogVersion.Domain.CATALOG)) {
+            return null;
+        }
         List<ProductDTO> products = productService.getProductsByCategory(categoryId);
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/available")
-    public ResponseEntity<List<ProductDTO>> getAvailableProducts() {
+    public ResponseEntity<List<ProductDTO>> getAvailableProducts(WebRequest request) {
+        if (catalogVersion.checkNotModified(request, CatalogVersion.Domain.CATALOG)) {
+            return null;
+        }
         List<ProductDTO> products = productService.getAvailableProducts();
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/category/{categoryId}/page")
+    public ResponseEntity<ProductPageDTO> getProductsByCategoryPage(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        if (catalogVersion.checkNotModified(request, CatalogVersion.Domain.CATALOG)) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok(productService.getProductsByCategoryPage(categoryId, sort, direction, size, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/available/page")
+    public ResponseEntity<ProductPageDTO> getAvailableProductsPage(
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        if (catalogVersion.checkNotModified(request, CatalogVersion.Domain.CATALOG)) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok(productService.getAvailableProductsPage(sort, direction, size, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFilterResultDTO> filterProducts(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) Boolean disponible,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        ProductFacetIndex.FacetQuery query = new ProductFacetIndex.FacetQuery();
+        query.setCategoryId(categoryId);
+        query.setMinPrice(minPrice);
+        query.setMaxPrice(maxPrice);
+        query.setMinRating(minRating);
+        query.setInStock(inStock);
+        query.setDisponible(disponible);
+        try {
+            return ResponseEntity.ok(productFilterService.filter(query, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
         ProductDTO product = productService.getProductById(id);
@@ -0,0 +1,27 @@
+package com.mollysou.controllers;
+
+import com.mollysou.services.PushService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/push")
+@CrossOrigin(origins = "*")
+public class PushController {
+
+    @Autowired
+    private PushService pushService;
+
+    // Server-sent events for one user; see PushService for the events sent
+    @GetMapping(value = "/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> connect(@PathVariable Long userId) {
+        try {
+            return ResponseEntity.ok(pushService.connect(userId));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
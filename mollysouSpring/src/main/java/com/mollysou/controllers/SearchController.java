@@ -0,0 +1,33 @@
+package com.mollysou.controllers;
+
+import com.mollysou.dto.CategorySearchResultDTO;
+import com.mollysou.dto.ProductSearchResultDTO;
+import com.mollysou.services.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/search")
+@CrossOrigin(origins = "*")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    @GetMapping("/products")
+    public ResponseEntity<ProductSearchResultDTO> searchProducts(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) Boolean disponible,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(searchService.searchProducts(q, disponible, categoryId, limit));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<CategorySearchResultDTO> searchCategories(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(searchService.searchCategories(q, limit));
+    }
+}
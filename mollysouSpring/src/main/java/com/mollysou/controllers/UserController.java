@@ -45,8 +45,12 @@ public class UserController {
 
     @PostMapping("/{userId}/cooldown/{type}")
     public ResponseEntity<Void> updateCooldown(@PathVariable Long userId, @PathVariable String type) {
-        userService.updateUserCooldown(userId, type);
-        return ResponseEntity.ok().build();
+        try {
+            userService.updateUserCooldown(userId, type);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping("/{userId}/add-points")
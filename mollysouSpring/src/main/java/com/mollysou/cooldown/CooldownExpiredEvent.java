@@ -0,0 +1,17 @@
+package com.mollysou.cooldown;
+
+// Published when a user's cooldown for a game ends and the game can be played again
+public class CooldownExpiredEvent {
+
+    private final Long userId;
+    private final GameType gameType;
+
+    public CooldownExpiredEvent(Long userId, GameType gameType) {
+        this.userId = userId;
+        this.gameType = gameType;
+    }
+
+    public Long getUserId() { return userId; }
+
+    public GameType getGameType() { return gameType; }
+}
@@ -0,0 +1,223 @@
+package com.mollysou.cooldown;
+
+import com.mollysou.timer.HierarchicalTimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Mini-game cooldowns, served from memory. Only users with a cooldown still running are
+// kept, as one small array of last-play times (unsigned epoch seconds) per user; a timing
+// wheel fires when each cooldown ends, announcing it with a CooldownExpiredEvent and dropping
+// the user once none is left running. Every running cooldown is loaded back at startup, so a
+// user missing from memory has none. Plays are written through to user_cooldowns in
+// batches, one row per user and game.
+@Component
+public class CooldownStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CooldownStore.class);
+
+    private static final GameType[] GAMES = GameType.values();
+
+    @Value("${mollysou.cooldown.wheel:12h}")
+    private Duration wheelCooldown;
+
+    @Value("${mollysou.cooldown.puzzle:1h}")
+    private Duration puzzleCooldown;
+
+    @Value("${mollysou.cooldown.video:3h}")
+    private Duration videoCooldown;
+
+    @Value("${mollysou.cooldown.reflex:1h}")
+    private Duration reflexCooldown;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    // Seconds, by GameType ordinal
+    private final long[] durations = new long[GAMES.length];
+    // Replaced, never modified in place, so readers always see a consistent array
+    private final Map<Long, int[]> lastPlays = new ConcurrentHashMap<>();
+    // Plays not yet written, keyed by userId * GAMES.length + ordinal
+    private final Map<Long, Long> unwritten = new ConcurrentHashMap<>();
+    // Same keys as unwritten
+    private HierarchicalTimingWheel<Long> expiryWheel;
+
+    @PostConstruct
+    public void load() {
+        durations[GameType.WHEEL.ordinal()] = wheelCooldown.getSeconds();
+        durations[GameType.PUZZLE.ordinal()] = puzzleCooldown.getSeconds();
+        durations[GameType.VIDEO.ordinal()] = videoCooldown.getSeconds();
+        durations[GameType.REFLEX.ordinal()] = reflexCooldown.getSeconds();
+        expiryWheel = new HierarchicalTimingWheel<>(1000, System.currentTimeMillis());
+
+        copyLegacyColumns();
+        long longest = 0;
+        for (long duration : durations) {
+            longest = Math.max(longest, duration);
+        }
+        int[] loaded = {0};
+        jdbcTemplate.query("SELECT user_id, game_type, played_at FROM user_cooldowns WHERE played_at > ?", rs -> {
+            try {
+                record(rs.getLong(1), GameType.fromKey(rs.getString(2)), rs.getLong(3));
+                loaded[0]++;
+            } catch (IllegalArgumentException e) {
+                // A game that no longer exists
+            }
+        }, nowSeconds() - longest);
+        log.info("Loaded {} running cooldowns", loaded[0]);
+    }
+
+    public void stamp(Long userId, GameType type) {
+        long now = nowSeconds();
+        record(userId, type, now);
+        unwritten.put(userId * GAMES.length + type.ordinal(), now);
+    }
+
+    // Seconds left before each game can be played again, by GameType ordinal
+    public long[] remainingSeconds(Long userId) {
+        long[] remaining = new long[GAMES.length];
+        int[] plays = lastPlays.get(userId);
+        if (plays == null) {
+            return remaining;
+        }
+        long now = nowSeconds();
+        for (int i = 0; i < GAMES.length; i++) {
+            if (plays[i] != 0) {
+                remaining[i] = Math.max(0, Integer.toUnsignedLong(plays[i]) + durations[i] - now);
+            }
+        }
+        return remaining;
+    }
+
+    // Epoch seconds of the last play of each game, by GameType ordinal, 0 if never played.
+    // Memory only knows running cooldowns and unwritten plays; the others are read from
+    // user_cooldowns.
+    public long[] lastPlayed(Long userId) {
+        long[] played = new long[GAMES.length];
+        int[] plays = lastPlays.get(userId);
+        boolean complete = true;
+        for (int i = 0; i < GAMES.length; i++) {
+            Long pending = unwritten.get(userId * GAMES.length + i);
+            played[i] = Math.max(plays != null ? Integer.toUnsignedLong(plays[i]) : 0, pending != null ? pending : 0);
+            complete &= played[i] != 0;
+        }
+        if (complete) {
+            return played;
+        }
+        jdbcTemplate.query("SELECT game_type, played_at FROM user_cooldowns WHERE user_id = ?", rs -> {
+            try {
+                int game = GameType.fromKey(rs.getString(1)).ordinal();
+                played[game] = Math.max(played[game], rs.getLong(2));
+            } catch (IllegalArgumentException e) {
+                // A game that no longer exists
+            }
+        }, userId);
+        return played;
+    }
+
+    public long getDurationSeconds(GameType type) {
+        return durations[type.ordinal()];
+    }
+
+    @Scheduled(fixedDelayString = "${mollysou.cooldown.expiry-delay-ms:1000}")
+    public void expire() {
+        // The same clock reading for both, or a timer could fire while its play still looks running
+        long nowMs = System.currentTimeMillis();
+        long now = nowMs / 1000;
+        for (Long key : expiryWheel.advance(nowMs)) {
+            long userId = key / GAMES.length;
+            int game = (int) (key % GAMES.length);
+            int[] plays = lastPlays.get(userId);
+            // A game played again since then has a later timer of its own
+            if (plays == null || plays[game] == 0 || Integer.toUnsignedLong(plays[game]) + durations[game] > now) {
+                continue;
+            }
+            lastPlays.computeIfPresent(userId, (id, current) -> isRunning(current, now) ? current : null);
+            publisher.publishEvent(new CooldownExpiredEvent(userId, GAMES[game]));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mollysou.cooldown.flush-delay-ms:1000}")
+    public void flush() {
+        if (unwritten.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (Long key : unwritten.keySet()) {
+            Long playedAt = unwritten.remove(key);
+            if (playedAt != null) {
+                rows.add(new Object[]{key / GAMES.length, GAMES[(int) (key % GAMES.length)].getKey(), playedAt});
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate("INSERT INTO user_cooldowns (user_id, game_type, played_at) VALUES (?, ?, ?) AS new "
+                    + "ON DUPLICATE KEY UPDATE played_at = GREATEST(user_cooldowns.played_at, new.played_at)", rows);
+        } catch (RuntimeException e) {
+            log.warn("Cooldown flush failed, will retry", e);
+            for (Object[] row : rows) {
+                long key = (Long) row[0] * GAMES.length + GameType.fromKey((String) row[1]).ordinal();
+                // A newer play queued meanwhile supersedes this one
+                unwritten.putIfAbsent(key, (Long) row[2]);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void record(long userId, GameType type, long playedAt) {
+        lastPlays.compute(userId, (id, current) -> {
+            int[] plays = current != null ? current.clone() : new int[GAMES.length];
+            plays[type.ordinal()] = (int) playedAt;
+            return plays;
+        });
+        expiryWheel.schedule(userId * GAMES.length + type.ordinal(), (playedAt + durations[type.ordinal()]) * 1000);
+    }
+
+    private boolean isRunning(int[] plays, long now) {
+        for (int i = 0; i < GAMES.length; i++) {
+            if (plays[i] != 0 && Integer.toUnsignedLong(plays[i]) + durations[i] > now) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Cooldowns used to be columns of users; they are copied once, into an empty table
+    private void copyLegacyColumns() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM user_cooldowns LIMIT 1) t",
+                Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        String[][] columns = {{"wheel", "last_wheel_spin"}, {"puzzle", "last_puzzle_game"},
+                {"video", "last_video_ad"}, {"reflex", "last_reflex_game"}};
+        for (String[] column : columns) {
+            jdbcTemplate.update("INSERT IGNORE INTO user_cooldowns (user_id, game_type, played_at) "
+                    + "SELECT id, ?, UNIX_TIMESTAMP(" + column[1] + ") FROM users WHERE " + column[1] + " IS NOT NULL",
+                    column[0]);
+        }
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
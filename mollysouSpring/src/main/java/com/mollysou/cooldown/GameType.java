@@ -0,0 +1,26 @@
+package com.mollysou.cooldown;
+
+// Mini-games with a cooldown; the key is the name used by the API and stored in user_cooldowns
+public enum GameType {
+    WHEEL("wheel"),
+    PUZZLE("puzzle"),
+    VIDEO("video"),
+    REFLEX("reflex");
+
+    private final String key;
+
+    GameType(String key) {
+        this.key = key;
+    }
+
+    public String getKey() { return key; }
+
+    public static GameType fromKey(String key) {
+        for (GameType type : values()) {
+            if (type.key.equalsIgnoreCase(key)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown game type: " + key);
+    }
+}
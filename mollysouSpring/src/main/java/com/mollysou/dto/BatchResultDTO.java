@@ -0,0 +1,23 @@
+package com.mollysou.dto;
+
+import java.util.List;
+
+public class BatchResultDTO<T> {
+    // Found rows, in the order the ids were requested
+    private List<T> items;
+    private List<Long> missingIds;
+
+    public BatchResultDTO() {}
+
+    public BatchResultDTO(List<T> items, List<Long> missingIds) {
+        this.items = items;
+        this.missingIds = missingIds;
+    }
+
+    // Getters and Setters
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public List<Long> getMissingIds() { return missingIds; }
+    public void setMissingIds(List<Long> missingIds) { this.missingIds = missingIds; }
+}
@@ -11,6 +11,24 @@ public class CartDTO {
     private Integer quantity;
     private Integer stock;
     private String category;
+    // False when the stock behind the line is not held, e.g. when it could not be held again
+    // after the cart was reloaded; the quantity may then no longer be available
+    private Boolean reserved;
+
+    public CartDTO() {}
+
+    // Used by JPQL constructor expressions
+    public CartDTO(Long id, Long productId, String productName, String productImage, BigDecimal price,
+                   Integer quantity, Integer stock, String category) {
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.productImage = productImage;
+        this.price = price;
+        this.quantity = quantity;
+        this.stock = stock;
+        this.category = category;
+    }
 
     // Getters and Setters
     public Long getId() { return id; }
@@ -36,4 +54,7 @@ public class CartDTO {
 
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; }
-}
\ No newline at end of file
+
+    public Boolean getReserved() { return reserved; }
+    public void setReserved(Boolean reserved) { this.reserved = reserved; }
+}
@@ -0,0 +1,40 @@
+package com.mollysou.dto;
+
+public class CartExpiryMetricsDTO {
+    // Lines removed from loaded carts, and rows removed by the database sweep
+    private long expiredLines;
+    private long deletedRows;
+    private long batches;
+    private double lastBatchMillis;
+    private double maxBatchMillis;
+    private double averageBatchMillis;
+    // Lines whose deadline is in the timing wheel
+    private int trackedLines;
+    // Epoch millis
+    private long nextSweepAt;
+
+    // Getters and Setters
+    public long getExpiredLines() { return expiredLines; }
+    public void setExpiredLines(long expiredLines) { this.expiredLines = expiredLines; }
+
+    public long getDeletedRows() { return deletedRows; }
+    public void setDeletedRows(long deletedRows) { this.deletedRows = deletedRows; }
+
+    public long getBatches() { return batches; }
+    public void setBatches(long batches) { this.batches = batches; }
+
+    public double getLastBatchMillis() { return lastBatchMillis; }
+    public void setLastBatchMillis(double lastBatchMillis) { this.lastBatchMillis = lastBatchMillis; }
+
+    public double getMaxBatchMillis() { return maxBatchMillis; }
+    public void setMaxBatchMillis(double maxBatchMillis) { this.maxBatchMillis = maxBatchMillis; }
+
+    public double getAverageBatchMillis() { return averageBatchMillis; }
+    public void setAverageBatchMillis(double averageBatchMillis) { this.averageBatchMillis = averageBatchMillis; }
+
+    public int getTrackedLines() { return trackedLines; }
+    public void setTrackedLines(int trackedLines) { this.trackedLines = trackedLines; }
+
+    public long getNextSweepAt() { return nextSweepAt; }
+    public void setNextSweepAt(long nextSweepAt) { this.nextSweepAt = nextSweepAt; }
+}
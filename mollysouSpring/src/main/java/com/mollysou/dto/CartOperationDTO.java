@@ -0,0 +1,26 @@
+package com.mollysou.dto;
+
+// One step of a bulk cart update: "add" adds to the current quantity, "set" replaces it
+// (0 removes the line) and "remove" drops the line
+public class CartOperationDTO {
+    private String op;
+    private Long productId;
+    private Integer quantity;
+
+    public CartOperationDTO() {}
+
+    public CartOperationDTO(String op, Long productId, Integer quantity) {
+        this.op = op;
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+}
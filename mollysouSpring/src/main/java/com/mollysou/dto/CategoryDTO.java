@@ -7,6 +7,7 @@ public class CategoryDTO {
     private String color;
     private String description;
     private Integer nombreProduits;
+    private Integer nombreProduitsDisponibles;
 
     public Long getId() {
         return id;
@@ -32,6 +33,10 @@ public class CategoryDTO {
         return nombreProduits;
     }
 
+    public Integer getNombreProduitsDisponibles() {
+        return nombreProduitsDisponibles;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -55,4 +60,8 @@ public class CategoryDTO {
     public void setNombreProduits(Integer nombreProduits) {
         this.nombreProduits = nombreProduits;
     }
+
+    public void setNombreProduitsDisponibles(Integer nombreProduitsDisponibles) {
+        this.nombreProduitsDisponibles = nombreProduitsDisponibles;
+    }
 }
\ No newline at end of file
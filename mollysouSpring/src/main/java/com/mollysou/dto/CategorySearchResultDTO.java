@@ -0,0 +1,27 @@
+package com.mollysou.dto;
+
+import java.util.List;
+
+public class CategorySearchResultDTO {
+    private String query;
+    private Integer total;
+    private List<CategoryDTO> categories;
+
+    public CategorySearchResultDTO() {}
+
+    public CategorySearchResultDTO(String query, Integer total, List<CategoryDTO> categories) {
+        this.query = query;
+        this.total = total;
+        this.categories = categories;
+    }
+
+    // Getters and Setters
+    public String getQuery() { return query; }
+    public void setQuery(String query) { this.query = query; }
+
+    public Integer getTotal() { return total; }
+    public void setTotal(Integer total) { this.total = total; }
+
+    public List<CategoryDTO> getCategories() { return categories; }
+    public void setCategories(List<CategoryDTO> categories) { this.categories = categories; }
+}
@@ -0,0 +1,36 @@
+package com.mollysou.dto;
+
+public class GameResultDTO {
+    // Generated by the app once per game played, and sent again unchanged on retries
+    private String id;
+    private Long userId;
+    private String gameType;
+    private Integer points;
+    private Integer xp;
+
+    public GameResultDTO() {}
+
+    public GameResultDTO(String id, Long userId, String gameType, Integer points, Integer xp) {
+        this.id = id;
+        this.userId = userId;
+        this.gameType = gameType;
+        this.points = points;
+        this.xp = xp;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getGameType() { return gameType; }
+    public void setGameType(String gameType) { this.gameType = gameType; }
+
+    public Integer getPoints() { return points; }
+    public void setPoints(Integer points) { this.points = points; }
+
+    public Integer getXp() { return xp; }
+    public void setXp(Integer xp) { this.xp = xp; }
+}
@@ -0,0 +1,18 @@
+package com.mollysou.dto;
+
+public class GameResultStatusDTO {
+    private String id;
+    private String status; // APPLIED, DUPLICATE, REJECTED
+
+    public GameResultStatusDTO(String id, String status) {
+        this.id = id;
+        this.status = status;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
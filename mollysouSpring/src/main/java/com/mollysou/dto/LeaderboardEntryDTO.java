@@ -0,0 +1,48 @@
+package com.mollysou.dto;
+
+public class LeaderboardEntryDTO {
+    // 1-based position on the leaderboard
+    private Long position;
+    private Long userId;
+    private String nomComplet;
+    private String photoProfil;
+    private Integer niveau;
+    // XP earned since level 1, which orders the all-time leaderboard
+    private Long totalXp;
+    // Points earned in the window, which orders the daily and weekly leaderboards
+    private Long points;
+
+    public LeaderboardEntryDTO() {}
+
+    public LeaderboardEntryDTO(Long position, Long userId, String nomComplet, String photoProfil,
+                               Integer niveau, Long totalXp) {
+        this.position = position;
+        this.userId = userId;
+        this.nomComplet = nomComplet;
+        this.photoProfil = photoProfil;
+        this.niveau = niveau;
+        this.totalXp = totalXp;
+    }
+
+    // Getters and Setters
+    public Long getPosition() { return position; }
+    public void setPosition(Long position) { this.position = position; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getNomComplet() { return nomComplet; }
+    public void setNomComplet(String nomComplet) { this.nomComplet = nomComplet; }
+
+    public String getPhotoProfil() { return photoProfil; }
+    public void setPhotoProfil(String photoProfil) { this.photoProfil = photoProfil; }
+
+    public Integer getNiveau() { return niveau; }
+    public void setNiveau(Integer niveau) { this.niveau = niveau; }
+
+    public Long getTotalXp() { return totalXp; }
+    public void setTotalXp(Long totalXp) { this.totalXp = totalXp; }
+
+    public Long getPoints() { return points; }
+    public void setPoints(Long points) { this.points = points; }
+}
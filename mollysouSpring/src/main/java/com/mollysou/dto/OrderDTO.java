@@ -0,0 +1,60 @@
+package com.mollysou.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OrderDTO {
+    private Long id;
+    private BigDecimal totalAmount;
+    private LocalDateTime orderDate;
+    private String status;
+    private Integer itemCount;
+    private Integer pointsRedeemed;
+    // Only filled when the items are requested
+    private List<OrderItemDTO> items;
+    // Rewards granted by the checkout that created the order
+    private Integer pointsEarned;
+    private Integer xpEarned;
+
+    public OrderDTO() {}
+
+    // Used by JPQL constructor expressions
+    public OrderDTO(Long id, BigDecimal totalAmount, LocalDateTime orderDate, String status, Integer itemCount,
+                    Integer pointsRedeemed) {
+        this.id = id;
+        this.totalAmount = totalAmount;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.itemCount = itemCount;
+        this.pointsRedeemed = pointsRedeemed;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Integer getItemCount() { return itemCount; }
+    public void setItemCount(Integer itemCount) { this.itemCount = itemCount; }
+
+    public Integer getPointsRedeemed() { return pointsRedeemed; }
+    public void setPointsRedeemed(Integer pointsRedeemed) { this.pointsRedeemed = pointsRedeemed; }
+
+    public List<OrderItemDTO> getItems() { return items; }
+    public void setItems(List<OrderItemDTO> items) { this.items = items; }
+
+    public Integer getPointsEarned() { return pointsEarned; }
+    public void setPointsEarned(Integer pointsEarned) { this.pointsEarned = pointsEarned; }
+
+    public Integer getXpEarned() { return xpEarned; }
+    public void setXpEarned(Integer xpEarned) { this.xpEarned = xpEarned; }
+}
@@ -0,0 +1,48 @@
+package com.mollysou.dto;
+
+import java.math.BigDecimal;
+
+public class OrderItemDTO {
+    private Long orderId;
+    private Long productId;
+    private String productName;
+    private String productImage;
+    private Integer quantity;
+    private BigDecimal price;
+
+    public OrderItemDTO() {}
+
+    public OrderItemDTO(Long productId, String productName, String productImage, Integer quantity, BigDecimal price) {
+        this(null, productId, productName, productImage, quantity, price);
+    }
+
+    // Used by JPQL constructor expressions
+    public OrderItemDTO(Long orderId, Long productId, String productName, String productImage, Integer quantity,
+                        BigDecimal price) {
+        this.orderId = orderId;
+        this.productId = productId;
+        this.productName = productName;
+        this.productImage = productImage;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    // Getters and Setters
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+
+    public String getProductImage() { return productImage; }
+    public void setProductImage(String productImage) { this.productImage = productImage; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+}
@@ -0,0 +1,39 @@
+package com.mollysou.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class OrderSummaryDTO {
+    private Long userId;
+    private Integer orderCount;
+    private Integer itemCount;
+    private BigDecimal totalSpent;
+    private LocalDateTime lastOrderDate;
+
+    public OrderSummaryDTO() {}
+
+    public OrderSummaryDTO(Long userId, Integer orderCount, Integer itemCount, BigDecimal totalSpent,
+                           LocalDateTime lastOrderDate) {
+        this.userId = userId;
+        this.orderCount = orderCount;
+        this.itemCount = itemCount;
+        this.totalSpent = totalSpent;
+        this.lastOrderDate = lastOrderDate;
+    }
+
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Integer getOrderCount() { return orderCount; }
+    public void setOrderCount(Integer orderCount) { this.orderCount = orderCount; }
+
+    public Integer getItemCount() { return itemCount; }
+    public void setItemCount(Integer itemCount) { this.itemCount = itemCount; }
+
+    public BigDecimal getTotalSpent() { return totalSpent; }
+    public void setTotalSpent(BigDecimal totalSpent) { this.totalSpent = totalSpent; }
+
+    public LocalDateTime getLastOrderDate() { return lastOrderDate; }
+    public void setLastOrderDate(LocalDateTime lastOrderDate) { this.lastOrderDate = lastOrderDate; }
+}
@@ -0,0 +1,37 @@
+package com.mollysou.dto;
+
+public class PointsBalanceDTO {
+    private Long userId;
+    private Long points;
+    // Total XP ever granted
+    private Long xp;
+    // Last entry folded into the snapshot, and the entries summed on top of it
+    private Long snapshotEntryId;
+    private Long tailEntries;
+
+    public PointsBalanceDTO() {}
+
+    public PointsBalanceDTO(Long userId, Long points, Long xp, Long snapshotEntryId, Long tailEntries) {
+        this.userId = userId;
+        this.points = points;
+        this.xp = xp;
+        this.snapshotEntryId = snapshotEntryId;
+        this.tailEntries = tailEntries;
+    }
+
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getPoints() { return points; }
+    public void setPoints(Long points) { this.points = points; }
+
+    public Long getXp() { return xp; }
+    public void setXp(Long xp) { this.xp = xp; }
+
+    public Long getSnapshotEntryId() { return snapshotEntryId; }
+    public void setSnapshotEntryId(Long snapshotEntryId) { this.snapshotEntryId = snapshotEntryId; }
+
+    public Long getTailEntries() { return tailEntries; }
+    public void setTailEntries(Long tailEntries) { this.tailEntries = tailEntries; }
+}
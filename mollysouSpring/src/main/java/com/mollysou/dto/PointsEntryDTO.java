@@ -0,0 +1,43 @@
+package com.mollysou.dto;
+
+import java.time.LocalDateTime;
+
+public class PointsEntryDTO {
+    private Long id;
+    private Long points;
+    private Long xp;
+    private String reason;
+    private String reference;
+    private LocalDateTime createdAt;
+
+    public PointsEntryDTO() {}
+
+    // Used by JPQL constructor expressions
+    public PointsEntryDTO(Long id, Long points, Long xp, String reason, String reference, LocalDateTime createdAt) {
+        this.id = id;
+        this.points = points;
+        this.xp = xp;
+        this.reason = reason;
+        this.reference = reference;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getPoints() { return points; }
+    public void setPoints(Long points) { this.points = points; }
+
+    public Long getXp() { return xp; }
+    public void setXp(Long xp) { this.xp = xp; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
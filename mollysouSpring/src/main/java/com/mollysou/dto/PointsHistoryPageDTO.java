@@ -0,0 +1,27 @@
+package com.mollysou.dto;
+
+import java.util.List;
+
+public class PointsHistoryPageDTO {
+    private List<PointsEntryDTO> entries;
+    private String nextCursor;
+    private Boolean hasMore;
+
+    public PointsHistoryPageDTO() {}
+
+    public PointsHistoryPageDTO(List<PointsEntryDTO> entries, String nextCursor, Boolean hasMore) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<PointsEntryDTO> getEntries() { return entries; }
+    public void setEntries(List<PointsEntryDTO> entries) { this.entries = entries; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public Boolean getHasMore() { return hasMore; }
+    public void setHasMore(Boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -14,6 +14,24 @@ public class ProductDTO {
     private Long categoryId;
     private Boolean disponible;
 
+    public ProductDTO() {
+    }
+
+    // Used by JPQL constructor expressions
+    public ProductDTO(Long id, String nom, String description, BigDecimal prix, String image, Integer stock,
+                      Double rating, String categoryNom, Long categoryId, Boolean disponible) {
+        this.id = id;
+        this.nom = nom;
+        this.description = description;
+        this.prix = prix;
+        this.image = image;
+        this.stock = stock;
+        this.rating = rating;
+        this.categoryNom = categoryNom;
+        this.categoryId = categoryId;
+        this.disponible = disponible;
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,40 @@
+package com.mollysou.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductFilterResultDTO {
+    private Integer total;
+    private Integer page;
+    private Integer size;
+    private List<ProductDTO> items;
+    // facet name -> value -> number of matching products
+    private Map<String, Map<String, Integer>> facets;
+
+    public ProductFilterResultDTO() {}
+
+    public ProductFilterResultDTO(Integer total, Integer page, Integer size, List<ProductDTO> items,
+                                  Map<String, Map<String, Integer>> facets) {
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.items = items;
+        this.facets = facets;
+    }
+
+    // Getters and Setters
+    public Integer getTotal() { return total; }
+    public void setTotal(Integer total) { this.total = total; }
+
+    public Integer getPage() { return page; }
+    public void setPage(Integer page) { this.page = page; }
+
+    public Integer getSize() { return size; }
+    public void setSize(Integer size) { this.size = size; }
+
+    public List<ProductDTO> getItems() { return items; }
+    public void setItems(List<ProductDTO> items) { this.items = items; }
+
+    public Map<String, Map<String, Integer>> getFacets() { return facets; }
+    public void setFacets(Map<String, Map<String, Integer>> facets) { this.facets = facets; }
+}
@@ -0,0 +1,27 @@
+package com.mollysou.dto;
+
+import java.util.List;
+
+public class ProductPageDTO {
+    private List<ProductDTO> items;
+    private String nextCursor;
+    private Boolean hasMore;
+
+    public ProductPageDTO() {}
+
+    public ProductPageDTO(List<ProductDTO> items, String nextCursor, Boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<ProductDTO> getItems() { return items; }
+    public void setItems(List<ProductDTO> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public Boolean getHasMore() { return hasMore; }
+    public void setHasMore(Boolean hasMore) { this.hasMore = hasMore; }
+}
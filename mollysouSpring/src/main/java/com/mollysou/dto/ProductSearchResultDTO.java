@@ -0,0 +1,27 @@
+package com.mollysou.dto;
+
+import java.util.List;
+
+public class ProductSearchResultDTO {
+    private String query;
+    private Integer total;
+    private List<ProductDTO> products;
+
+    public ProductSearchResultDTO() {}
+
+    public ProductSearchResultDTO(String query, Integer total, List<ProductDTO> products) {
+        this.query = query;
+        this.total = total;
+        this.products = products;
+    }
+
+    // Getters and Setters
+    public String getQuery() { return query; }
+    public void setQuery(String query) { this.query = query; }
+
+    public Integer getTotal() { return total; }
+    public void setTotal(Integer total) { this.total = total; }
+
+    public List<ProductDTO> getProducts() { return products; }
+    public void setProducts(List<ProductDTO> products) { this.products = products; }
+}
@@ -0,0 +1,33 @@
+package com.mollysou.dto;
+
+public class ProgressDTO {
+    private Integer points;
+    private Integer niveau;
+    private Integer xpActuel;
+    private Integer xpProchainNiveau;
+    private String rank;
+
+    public ProgressDTO(Integer points, Integer niveau, Integer xpActuel, Integer xpProchainNiveau, String rank) {
+        this.points = points;
+        this.niveau = niveau;
+        this.xpActuel = xpActuel;
+        this.xpProchainNiveau = xpProchainNiveau;
+        this.rank = rank;
+    }
+
+    // Getters and Setters
+    public Integer getPoints() { return points; }
+    public void setPoints(Integer points) { this.points = points; }
+
+    public Integer getNiveau() { return niveau; }
+    public void setNiveau(Integer niveau) { this.niveau = niveau; }
+
+    public Integer getXpActuel() { return xpActuel; }
+    public void setXpActuel(Integer xpActuel) { this.xpActuel = xpActuel; }
+
+    public Integer getXpProchainNiveau() { return xpProchainNiveau; }
+    public void setXpProchainNiveau(Integer xpProchainNiveau) { this.xpProchainNiveau = xpProchainNiveau; }
+
+    public String getRank() { return rank; }
+    public void setRank(String rank) { this.rank = rank; }
+}
@@ -0,0 +1,32 @@
+package com.mollysou.dto;
+
+public class PushMetricsDTO {
+    private int connections;
+    private int users;
+    private long sent;
+    // Messages replaced by a newer one with the same key before being written
+    private long coalesced;
+    // Messages dropped because a connection had too many different ones queued
+    private long dropped;
+    // Writes that found the connection closed
+    private long failed;
+
+    // Getters and Setters
+    public int getConnections() { return connections; }
+    public void setConnections(int connections) { this.connections = connections; }
+
+    public int getUsers() { return users; }
+    public void setUsers(int users) { this.users = users; }
+
+    public long getSent() { return sent; }
+    public void setSent(long sent) { this.sent = sent; }
+
+    public long getCoalesced() { return coalesced; }
+    public void setCoalesced(long coalesced) { this.coalesced = coalesced; }
+
+    public long getDropped() { return dropped; }
+    public void setDropped(long dropped) { this.dropped = dropped; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+}
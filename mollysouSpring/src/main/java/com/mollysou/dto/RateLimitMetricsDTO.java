@@ -0,0 +1,29 @@
+package com.mollysou.dto;
+
+public class RateLimitMetricsDTO {
+    private String endpoint;
+    private long allowed;
+    private long rejected;
+    // Users with a bucket that is not full
+    private int buckets;
+
+    public RateLimitMetricsDTO(String endpoint, long allowed, long rejected, int buckets) {
+        this.endpoint = endpoint;
+        this.allowed = allowed;
+        this.rejected = rejected;
+        this.buckets = buckets;
+    }
+
+    // Getters and Setters
+    public String getEndpoint() { return endpoint; }
+    public void setEndpoint(String endpoint) { this.endpoint = endpoint; }
+
+    public long getAllowed() { return allowed; }
+    public void setAllowed(long allowed) { this.allowed = allowed; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    public int getBuckets() { return buckets; }
+    public void setBuckets(int buckets) { this.buckets = buckets; }
+}
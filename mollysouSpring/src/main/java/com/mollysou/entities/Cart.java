@@ -4,7 +4,13 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cart")
+@Table(name = "cart", uniqueConstraints = {
+        // One line per product and user; also makes (user_id, product_id) lookups and upserts point operations
+        @UniqueConstraint(name = "uk_cart_user_product", columnNames = {"user_id", "product_id"})
+}, indexes = {
+        // Range deletes of expired lines
+        @Index(name = "idx_cart_added_at", columnList = "addedAt")
+})
 public class Cart {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
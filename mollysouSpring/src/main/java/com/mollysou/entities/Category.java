@@ -1,11 +1,13 @@
 package com.mollysou.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.mollysou.catalog.CatalogEntityListener;
 import jakarta.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Table(name = "categories")
 public class Category {
     @Id
@@ -1,10 +1,12 @@
 package com.mollysou.entities;
 
+import com.mollysou.catalog.CatalogEntityListener;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.math.BigDecimal;
 
 @Entity
+@EntityListeners(CatalogEntityListener.class)
 @Table(name = "events")
 public class Event {
     @Id
@@ -7,7 +7,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", uniqueConstraints = {
+        // A retried checkout with the same key finds the order instead of creating another one
+        @UniqueConstraint(name = "uk_orders_user_idempotency", columnNames = {"user_id", "idempotency_key"})
+}, indexes = {
+        // Keyset pagination of a user's history, newest first
+        @Index(name = "idx_orders_user_date_id", columnList = "user_id, orderDate, id")
+})
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,9 +27,18 @@ public class Order {
     private List<OrderItem> items = new ArrayList<>();
 
     private BigDecimal totalAmount;
+
+    // Total units ordered, stored at checkout so listings never need to load the items
+    private Integer itemCount;
     private LocalDateTime orderDate;
     private String status; // PENDING, COMPLETED, CANCELLED
 
+    @Column(length = 64)
+    private String idempotencyKey;
+
+    // Points spent on this order, already deducted from totalAmount
+    private Integer pointsRedeemed = 0;
+
     public Order() {
         this.orderDate = LocalDateTime.now();
         this.status = "PENDING";
@@ -42,9 +57,18 @@ public class Order {
     public BigDecimal getTotalAmount() { return totalAmount; }
     public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
 
+    public Integer getItemCount() { return itemCount; }
+    public void setItemCount(Integer itemCount) { this.itemCount = itemCount; }
+
     public LocalDateTime getOrderDate() { return orderDate; }
     public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
 
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public Integer getPointsRedeemed() { return pointsRedeemed; }
+    public void setPointsRedeemed(Integer pointsRedeemed) { this.pointsRedeemed = pointsRedeemed; }
 }
\ No newline at end of file
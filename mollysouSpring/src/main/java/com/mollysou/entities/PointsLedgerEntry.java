@@ -0,0 +1,60 @@
+package com.mollysou.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// One change of a user's points or XP. Rows are only ever inserted.
+@Entity
+@Table(name = "points_ledger", uniqueConstraints = {
+        // An entry with a reference (order, game result...) is recorded at most once
+        @UniqueConstraint(name = "uk_points_ledger_user_reference", columnNames = {"user_id", "reference"})
+}, indexes = {
+        // History pages and balance tails, both by entry id within a user
+        @Index(name = "idx_points_ledger_user_id", columnList = "user_id, id"),
+        // Recent entries, summed into the daily and weekly leaderboards at startup
+        @Index(name = "idx_points_ledger_created_at", columnList = "createdAt")
+})
+public class PointsLedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long points;
+
+    @Column(nullable = false)
+    private Long xp;
+
+    @Column(length = 32, nullable = false)
+    private String reason; // OPENING, REWARD, PURCHASE, REDEMPTION, GAME
+
+    @Column(length = 96)
+    private String reference;
+
+    private LocalDateTime createdAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getPoints() { return points; }
+    public void setPoints(Long points) { this.points = points; }
+
+    public Long getXp() { return xp; }
+    public void setXp(Long xp) { this.xp = xp; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
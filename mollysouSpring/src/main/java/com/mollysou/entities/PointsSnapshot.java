@@ -0,0 +1,33 @@
+package com.mollysou.entities;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Sum of a user's ledger entries up to lastEntryId; a balance is this plus the entries after it
+@Entity
+@Table(name = "points_snapshots")
+public class PointsSnapshot {
+    @Id
+    private Long userId;
+
+    private Long points = 0L;
+    private Long xp = 0L;
+    private Long lastEntryId = 0L;
+    private LocalDateTime takenAt;
+
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getPoints() { return points; }
+    public void setPoints(Long points) { this.points = points; }
+
+    public Long getXp() { return xp; }
+    public void setXp(Long xp) { this.xp = xp; }
+
+    public Long getLastEntryId() { return lastEntryId; }
+    public void setLastEntryId(Long lastEntryId) { this.lastEntryId = lastEntryId; }
+
+    public LocalDateTime getTakenAt() { return takenAt; }
+    public void setTakenAt(LocalDateTime takenAt) { this.takenAt = takenAt; }
+}
@@ -1,10 +1,22 @@
 package com.mollysou.entities;
 
+import com.mollysou.catalog.CatalogEntityListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "products")
+@EntityListeners(CatalogEntityListener.class)
+@Table(name = "products", indexes = {
+        // Composite indexes backing the keyset listings (sort column, then id as tie-breaker)
+        @Index(name = "idx_products_dispo_id", columnList = "disponible, id"),
+        @Index(name = "idx_products_dispo_prix_id", columnList = "disponible, prix, id"),
+        @Index(name = "idx_products_dispo_rating_id", columnList = "disponible, rating, id"),
+        @Index(name = "idx_products_dispo_nom_id", columnList = "disponible, nom, id"),
+        @Index(name = "idx_products_cat_id", columnList = "category_id, id"),
+        @Index(name = "idx_products_cat_prix_id", columnList = "category_id, prix, id"),
+        @Index(name = "idx_products_cat_rating_id", columnList = "category_id, rating, id"),
+        @Index(name = "idx_products_cat_nom_id", columnList = "category_id, nom, id")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,6 +38,22 @@ public class Product {
 
     private Boolean disponible = true;
 
+    // State as last read from / written to the database, so that change listeners
+    // can tell what an update moved (e.g. category counters)
+    @Transient
+    private Long loadedCategoryId;
+
+    @Transient
+    private Boolean loadedDisponible;
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberLoadedState() {
+        this.loadedCategoryId = category != null ? category.getId() : null;
+        this.loadedDisponible = disponible;
+    }
+
     public Long getId() {
         return id;
     }
@@ -66,6 +94,14 @@ public class Product {
         return disponible;
     }
 
+    public Long getLoadedCategoryId() {
+        return loadedCategoryId;
+    }
+
+    public Boolean getLoadedDisponible() {
+        return loadedDisponible;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -0,0 +1,39 @@
+package com.mollysou.entities;
+
+import jakarta.persistence.*;
+
+// Last time a user played a mini-game, in epoch seconds. Written in batches by CooldownStore.
+@Entity
+@Table(name = "user_cooldowns", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_cooldowns_user_game", columnNames = {"user_id", "game_type"})
+}, indexes = {
+        // Startup only loads cooldowns that can still be running
+        @Index(name = "idx_user_cooldowns_played_at", columnList = "played_at")
+})
+public class UserCooldown {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "game_type", length = 16, nullable = false)
+    private String gameType;
+
+    @Column(name = "played_at", nullable = false)
+    private Long playedAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getGameType() { return gameType; }
+    public void setGameType(String gameType) { this.gameType = gameType; }
+
+    public Long getPlayedAt() { return playedAt; }
+    public void setPlayedAt(Long playedAt) { this.playedAt = playedAt; }
+}
@@ -0,0 +1,35 @@
+package com.mollysou.entities;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Per-user order totals, updated in the checkout transaction so that they never have to be
+// aggregated from the orders table
+@Entity
+@Table(name = "user_order_summaries")
+public class UserOrderSummary {
+    @Id
+    private Long userId;
+
+    private Integer orderCount = 0;
+    private Integer itemCount = 0;
+    private BigDecimal totalSpent = BigDecimal.ZERO;
+    private LocalDateTime lastOrderDate;
+
+    // Getters and Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Integer getOrderCount() { return orderCount; }
+    public void setOrderCount(Integer orderCount) { this.orderCount = orderCount; }
+
+    public Integer getItemCount() { return itemCount; }
+    public void setItemCount(Integer itemCount) { this.itemCount = itemCount; }
+
+    public BigDecimal getTotalSpent() { return totalSpent; }
+    public void setTotalSpent(BigDecimal totalSpent) { this.totalSpent = totalSpent; }
+
+    public LocalDateTime getLastOrderDate() { return lastOrderDate; }
+    public void setLastOrderDate(LocalDateTime lastOrderDate) { this.lastOrderDate = lastOrderDate; }
+}
@@ -0,0 +1,80 @@
+package com.mollysou.games;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter over strings. mightContain is never false for a key that was added, and is
+// wrongly true for other keys with about the configured probability while at most capacity
+// keys have been added. Bits are set with CAS, so adds and lookups take no lock.
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final int capacity;
+    private final AtomicInteger added = new AtomicInteger();
+
+    public BloomFilter(int capacity, double falsePositiveRate) {
+        if (capacity <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter size");
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bitCount = Math.max(64, (bits + 63) / 64 * 64);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * ln2));
+        this.capacity = capacity;
+        this.words = new AtomicLongArray(Math.toIntExact(bitCount / 64));
+    }
+
+    public void add(String key) {
+        long hash = hash(key);
+        long step = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(hash + i * step, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+        added.incrementAndGet();
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        long step = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(hash + i * step, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Past capacity the false positive rate climbs above the configured one
+    public boolean isFull() {
+        return added.get() >= capacity;
+    }
+
+    // FNV-1a over the chars, then a final mix so that similar keys spread over the whole range
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // MurmurHash3 fmix64
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
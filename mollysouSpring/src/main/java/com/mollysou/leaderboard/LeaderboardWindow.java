@@ -0,0 +1,28 @@
+package com.mollysou.leaderboard;
+
+// Rolling windows of the points leaderboards, in whole hours
+public enum LeaderboardWindow {
+    DAY("day", 24),
+    WEEK("week", 168);
+
+    private final String key;
+    private final int hours;
+
+    LeaderboardWindow(String key, int hours) {
+        this.key = key;
+        this.hours = hours;
+    }
+
+    public String getKey() { return key; }
+
+    public int getHours() { return hours; }
+
+    public static LeaderboardWindow fromKey(String key) {
+        for (LeaderboardWindow window : values()) {
+            if (window.key.equalsIgnoreCase(key)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unknown leaderboard window: " + key);
+    }
+}
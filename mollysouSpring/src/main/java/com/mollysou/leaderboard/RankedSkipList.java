@@ -0,0 +1,458 @@
+package com.mollysou.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Scores of users ordered by score (highest first, ties by lowest user id), with the rank
+// of any user, the user at any rank and updates all in O(log n). It is a skip list whose
+// links also store how many entries they jump over, so ranks are summed while searching.
+// Users are found by id through an open-addressing index instead of a HashMap, which keeps
+// the per-user footprint small enough for tens of millions of entries.
+public class RankedSkipList {
+
+    private static final int MAX_LEVEL = 32;
+
+    private final Node head = new Node(0, 0, MAX_LEVEL);
+    private final NodeIndex index = new NodeIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int level = 1;
+    private int size;
+
+    public record Entry(long rank, long userId, long score) {
+    }
+
+    public void put(long userId, long score) {
+        lock.writeLock().lock();
+        try {
+            Node existing = index.get(userId);
+            if (existing != null) {
+                if (existing.score == score) {
+                    return;
+                }
+                delete(existing);
+            }
+            insert(userId, score);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds delta to the user's score; a user not yet listed starts from 0
+    public long add(long userId, long delta) {
+        lock.writeLock().lock();
+        try {
+            Node existing = index.get(userId);
+            long score = (existing != null ? existing.score : 0) + delta;
+            if (existing != null) {
+                if (delta == 0) {
+                    return score;
+                }
+                delete(existing);
+            }
+            insert(userId, score);
+            return score;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            Node existing = index.get(userId);
+            if (existing == null) {
+                return false;
+            }
+            delete(existing);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Replaces the whole content; user ids must be distinct. Entries are sorted once and
+    // linked in order, which is O(n log n) overall instead of n searches.
+    public void load(long[] userIds, long[] scores, int count) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        sort(order, 0, count - 1, userIds, scores);
+
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < MAX_LEVEL; i++) {
+                head.next[i] = null;
+                head.span[i] = 0;
+            }
+            index.clear(count);
+            level = 1;
+            size = 0;
+
+            Node[] tails = new Node[MAX_LEVEL];
+            int[] tailRanks = new int[MAX_LEVEL];
+            Arrays.fill(tails, head);
+            for (int i = 0; i < count; i++) {
+                int position = order[i];
+                int nodeLevel = randomLevel();
+                Node node = new Node(userIds[position], scores[position], nodeLevel);
+                size++;
+                for (int l = 0; l < nodeLevel; l++) {
+                    tails[l].next[l] = node;
+                    tails[l].span[l] = size - tailRanks[l];
+                    tails[l] = node;
+                    tailRanks[l] = size;
+                }
+                level = Math.max(level, nodeLevel);
+                index.put(node.userId, node);
+            }
+            // Links to the end span the entries left after their node
+            for (int l = 0; l < MAX_LEVEL; l++) {
+                tails[l].span[l] = size - tailRanks[l];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 1-based rank, or null if the user is not listed
+    public Entry get(long userId) {
+        lock.readLock().lock();
+        try {
+            Node node = index.get(userId);
+            return node != null ? new Entry(rankOf(node), node.userId, node.score) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Entry> top(int count) {
+        lock.readLock().lock();
+        try {
+            return walk(head.next[0], 1, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Up to `before` entries ranked above the user, the user, and up to `after` below
+    public List<Entry> around(long userId, int before, int after) {
+        lock.readLock().lock();
+        try {
+            Node node = index.get(userId);
+            if (node == null) {
+                return List.of();
+            }
+            long rank = rankOf(node);
+            long first = Math.max(1, rank - before);
+            return walk(nodeAt(first), first, (int) (rank - first) + after + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Entries from the given 1-based rank on
+    public List<Entry> range(long firstRank, int count) {
+        lock.readLock().lock();
+        try {
+            return walk(nodeAt(firstRank), firstRank, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Entry> walk(Node from, long firstRank, int count) {
+        List<Entry> entries = new ArrayList<>(Math.max(0, Math.min(count, size)));
+        long rank = firstRank;
+        for (Node node = from; node != null && entries.size() < count; node = node.next[0]) {
+            entries.add(new Entry(rank++, node.userId, node.score));
+        }
+        return entries;
+    }
+
+    private long rankOf(Node target) {
+        long rank = 0;
+        Node x = head;
+        for (int l = level - 1; l >= 0; l--) {
+            while (x.next[l] != null && (x.next[l] == target || precedes(x.next[l], target.score, target.userId))) {
+                rank += x.span[l];
+                x = x.next[l];
+            }
+            if (x == target) {
+                return rank;
+            }
+        }
+        return rank;
+    }
+
+    private Node nodeAt(long rank) {
+        if (rank < 1 || rank > size) {
+            return null;
+        }
+        long traversed = 0;
+        Node x = head;
+        for (int l = level - 1; l >= 0; l--) {
+            while (x.next[l] != null && traversed + x.span[l] <= rank) {
+                traversed += x.span[l];
+                x = x.next[l];
+            }
+            if (traversed == rank) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    private void insert(long userId, long score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int l = level - 1; l >= 0; l--) {
+            rank[l] = l == level - 1 ? 0 : rank[l + 1];
+            while (x.next[l] != null && precedes(x.next[l], score, userId)) {
+                rank[l] += x.span[l];
+                x = x.next[l];
+            }
+            update[l] = x;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int l = level; l < nodeLevel; l++) {
+                rank[l] = 0;
+                update[l] = head;
+                head.span[l] = size;
+            }
+            level = nodeLevel;
+        }
+
+        Node node = new Node(userId, score, nodeLevel);
+        for (int l = 0; l < nodeLevel; l++) {
+            node.next[l] = update[l].next[l];
+            update[l].next[l] = node;
+            node.span[l] = update[l].span[l] - (rank[0] - rank[l]);
+            update[l].span[l] = (rank[0] - rank[l]) + 1;
+        }
+        for (int l = nodeLevel; l < level; l++) {
+            update[l].span[l]++;
+        }
+        size++;
+        index.put(userId, node);
+    }
+
+    private void delete(Node node) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int l = level - 1; l >= 0; l--) {
+            while (x.next[l] != null && precedes(x.next[l], node.score, node.userId)) {
+                x = x.next[l];
+            }
+            update[l] = x;
+        }
+        for (int l = 0; l < level; l++) {
+            if (update[l].next[l] == node) {
+                update[l].span[l] += node.span[l] - 1;
+                update[l].next[l] = node.next[l];
+            } else {
+                update[l].span[l]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        index.remove(node.userId);
+    }
+
+    // Higher scores first, then lower user ids
+    private static boolean precedes(Node node, long score, long userId) {
+        return node.score > score || (node.score == score && node.userId < userId);
+    }
+
+    private static int randomLevel() {
+        // Each level holds a quarter of the one below
+        int bits = ThreadLocalRandom.current().nextInt();
+        int nodeLevel = 1;
+        while (nodeLevel < MAX_LEVEL && (bits & 3) == 0) {
+            nodeLevel++;
+            bits >>>= 2;
+            if (bits == 0) {
+                break;
+            }
+        }
+        return nodeLevel;
+    }
+
+    private static boolean sortsBefore(int a, int b, long[] userIds, long[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && userIds[a] < userIds[b]);
+    }
+
+    // Quicksort of positions, avoiding boxed comparators on millions of entries
+    private static void sort(int[] order, int low, int high, long[] userIds, long[] scores) {
+        while (high - low > 16) {
+            int middle = (low + high) >>> 1;
+            int pivot = medianOfThree(order[low], order[middle], order[high], userIds, scores);
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (sortsBefore(order[i], pivot, userIds, scores)) {
+                    i++;
+                }
+                while (sortsBefore(pivot, order[j], userIds, scores)) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+            // Recurse into the smaller side to bound the stack depth
+            if (j - low < high - i) {
+                sort(order, low, j, userIds, scores);
+                low = i;
+            } else {
+                sort(order, i, high, userIds, scores);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            int value = order[i];
+            int j = i - 1;
+            while (j >= low && sortsBefore(value, order[j], userIds, scores)) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = value;
+        }
+    }
+
+    private static int medianOfThree(int a, int b, int c, long[] userIds, long[] scores) {
+        if (sortsBefore(a, b, userIds, scores)) {
+            if (sortsBefore(b, c, userIds, scores)) {
+                return b;
+            }
+            return sortsBefore(a, c, userIds, scores) ? c : a;
+        }
+        if (sortsBefore(a, c, userIds, scores)) {
+            return a;
+        }
+        return sortsBefore(b, c, userIds, scores) ? c : b;
+    }
+
+    private static final class Node {
+        private final long userId;
+        private final long score;
+        private final Node[] next;
+        // span[l]: number of entries the link at level l moves forward
+        private final int[] span;
+
+        private Node(long userId, long score, int level) {
+            this.userId = userId;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    // Open-addressing map from user id to node, with linear probing
+    private static final class NodeIndex {
+        private long[] keys = new long[16];
+        private Node[] values = new Node[16];
+        private int count;
+
+        Node get(long key) {
+            int mask = values.length - 1;
+            for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        void put(long key, Node value) {
+            if ((count + 1) * 3 > values.length * 2) {
+                resize(values.length * 2);
+            }
+            int mask = values.length - 1;
+            int i = hash(key) & mask;
+            while (values[i] != null) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            count++;
+        }
+
+        void remove(long key) {
+            int mask = values.length - 1;
+            int i = hash(key) & mask;
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == null) {
+                return;
+            }
+            values[i] = null;
+            count--;
+            // Shift back the entries of the probe run so lookups never stop at the hole
+            int hole = i;
+            for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+                int home = hash(keys[j]) & mask;
+                boolean movable = hole <= j ? (home <= hole || home > j) : (home <= hole && home > j);
+                if (movable) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    values[j] = null;
+                    hole = j;
+                }
+            }
+        }
+
+        void clear(int expected) {
+            int capacity = 16;
+            while (capacity * 2 < expected * 3) {
+                capacity <<= 1;
+            }
+            keys = new long[capacity];
+            values = new Node[capacity];
+            count = 0;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Node[] oldValues = values;
+            keys = new long[capacity];
+            values = new Node[capacity];
+            count = 0;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
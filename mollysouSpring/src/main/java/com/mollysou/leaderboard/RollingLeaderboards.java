@@ -0,0 +1,97 @@
+package com.mollysou.leaderboard;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// Points earned over each LeaderboardWindow, ranked. Awards are summed into a ring of hourly
+// buckets (user -> points earned that hour) as long as the longest window, and each window
+// has a ranked board holding every user's total over its hours. When an hour leaves a window
+// its bucket is subtracted from that board user by user, and the bucket is reused once it
+// leaves the longest one. Rolling costs the number of users who earned in the hour leaving;
+// awards cost one O(log n) update per window, and reads are the board's, whatever the
+// number of awards in the window.
+public class RollingLeaderboards {
+
+    private static final long HOUR_MS = 3_600_000;
+    private static final LeaderboardWindow[] WINDOWS = LeaderboardWindow.values();
+
+    private final Map<Long, Long>[] buckets;
+    private final Map<LeaderboardWindow, RankedSkipList> boards = new EnumMap<>(LeaderboardWindow.class);
+    // Latest hour included in the windows
+    private long currentHour;
+
+    public RollingLeaderboards(long nowMs) {
+        int longest = 0;
+        for (LeaderboardWindow window : WINDOWS) {
+            longest = Math.max(longest, window.getHours());
+            boards.put(window, new RankedSkipList());
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Long>[] buckets = (Map<Long, Long>[]) new Map<?, ?>[longest];
+        for (int i = 0; i < longest; i++) {
+            buckets[i] = new HashMap<>();
+        }
+        this.buckets = buckets;
+        currentHour = nowMs / HOUR_MS;
+    }
+
+    // Counts points earned at the given time in every window still covering it; an award
+    // later than the current hour rolls the windows forward first
+    public synchronized void award(long userId, long points, long atMs) {
+        long hour = atMs / HOUR_MS;
+        rollTo(hour);
+        if (points == 0 || hour <= currentHour - buckets.length) {
+            return;
+        }
+        buckets[slot(hour)].merge(userId, points, Long::sum);
+        for (LeaderboardWindow window : WINDOWS) {
+            if (hour > currentHour - window.getHours()) {
+                add(boards.get(window), userId, points);
+            }
+        }
+    }
+
+    public synchronized void advance(long nowMs) {
+        rollTo(nowMs / HOUR_MS);
+    }
+
+    // Safe to read without holding this lock; it may reflect an hour being rolled out
+    public RankedSkipList board(LeaderboardWindow window) {
+        return boards.get(window);
+    }
+
+    private void rollTo(long hour) {
+        if (hour - currentHour >= buckets.length) {
+            // Every bucket has left every window
+            for (Map<Long, Long> bucket : buckets) {
+                bucket.forEach((userId, points) -> boards.values().forEach(board -> board.remove(userId)));
+                bucket.clear();
+            }
+            currentHour = hour;
+            return;
+        }
+        while (currentHour < hour) {
+            currentHour++;
+            for (LeaderboardWindow window : WINDOWS) {
+                // The hour that just left this window
+                long leaving = currentHour - window.getHours();
+                RankedSkipList board = boards.get(window);
+                buckets[slot(leaving)].forEach((userId, points) -> add(board, userId, -points));
+            }
+            // It left the longest window too, so its slot now holds currentHour
+            buckets[slot(currentHour)].clear();
+        }
+    }
+
+    private int slot(long hour) {
+        return (int) Math.floorMod(hour, (long) buckets.length);
+    }
+
+    // Users whose total drops to nothing leave the board, so it only lists users who earned
+    private static void add(RankedSkipList board, long userId, long points) {
+        if (board.add(userId, points) <= 0) {
+            board.remove(userId);
+        }
+    }
+}
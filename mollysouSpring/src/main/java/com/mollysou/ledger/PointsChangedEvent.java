@@ -0,0 +1,26 @@
+package com.mollysou.ledger;
+
+// Published for every user whose points or XP a ledger write changed; listeners that need
+// committed data should use @TransactionalEventListener
+public class PointsChangedEvent {
+
+    private final Long userId;
+    private final long points;
+    private final long xp;
+    private final boolean leveledUp;
+
+    public PointsChangedEvent(Long userId, long points, long xp, boolean leveledUp) {
+        this.userId = userId;
+        this.points = points;
+        this.xp = xp;
+        this.leveledUp = leveledUp;
+    }
+
+    public Long getUserId() { return userId; }
+
+    public long getPoints() { return points; }
+
+    public long getXp() { return xp; }
+
+    public boolean isLeveledUp() { return leveledUp; }
+}
@@ -0,0 +1,294 @@
+package com.mollysou.ledger;
+
+import com.mollysou.progression.LevelProgression;
+import com.mollysou.repositories.UserLevelState;
+import com.mollysou.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Append-only ledger of points and XP. Every change is an entry in points_ledger; the
+// points, level and XP columns of users are a running total updated in the same transaction
+// as the entries. Rewards go through a group-commit writer: callers queue an entry and wait
+// while one thread inserts everything queued so far in a single batch and applies one delta
+// per user, so a burst of rewards costs one transaction instead of one row lock each.
+// An entry with a reference is recorded and applied at most once.
+@Component
+public class PointsLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(PointsLedger.class);
+
+    private static final String INSERT_ENTRY = "INSERT IGNORE INTO points_ledger "
+            + "(user_id, points, xp, reason, reference, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Value("${mollysou.points.batch-size:500}")
+    private int batchSize;
+
+    @Value("${mollysou.points.await-timeout-ms:5000}")
+    private long awaitTimeoutMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    private final BlockingQueue<PendingEntry> queue = new LinkedBlockingQueue<>();
+    // Users with entries since their last snapshot, with the time of the first of them
+    private final Map<Long, Long> touchedUsers = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    // Set by the writer before it fails what is left in the queue for good
+    private volatile boolean writerStopped;
+    private Thread writerThread;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::writeLoop, "points-ledger-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Queues an entry for the next batch. The future completes once it is committed, with
+    // false if an entry with the same reference already existed. Must not be awaited inside
+    // a transaction that touches the user: use appendNow there.
+    public CompletableFuture<Boolean> append(Long userId, int points, int xp, String reason, String reference) {
+        if (!running) {
+            throw new IllegalStateException("Points ledger is stopped");
+        }
+        PendingEntry entry = new PendingEntry(userId, points, xp, reason, reference);
+        queue.add(entry);
+        if (writerStopped) {
+            failQueued();
+        }
+        return entry.result;
+    }
+
+    // Waits at most await-timeout-ms for a queued entry. A failure is rethrown as the writer
+    // raised it; on a timeout the entry may still be committed later.
+    public <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.get(awaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Points ledger did not answer in time", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the points ledger", e);
+        }
+    }
+
+    // Records an entry in the caller's transaction; false if the reference was already recorded
+    @Transactional
+    public boolean appendNow(Long userId, int points, int xp, String reason, String reference) {
+        int inserted = jdbcTemplate.update(INSERT_ENTRY, userId, points, xp, reason, reference, now());
+        if (inserted == 0) {
+            return false;
+        }
+        changed(userId, points, xp, applyDelta(userId, points, xp));
+        return true;
+    }
+
+    // Takes points from the user's balance, once per reference. Fails without writing
+    // anything if the balance is lower than the amount.
+    @Transactional
+    public boolean debit(Long userId, int points, String reason, String reference) {
+        int inserted = jdbcTemplate.update(INSERT_ENTRY, userId, -points, 0, reason, reference, now());
+        if (inserted == 0) {
+            return false;
+        }
+        int updated = jdbcTemplate.update(
+                "UPDATE users SET points = points - ?, updated_at = ? WHERE id = ? AND points >= ?",
+                points, now(), userId, points);
+        if (updated == 0) {
+            throw new RuntimeException("Not enough points");
+        }
+        changed(userId, -points, 0, false);
+        return true;
+    }
+
+    // Users whose first entry since the last snapshot is older than the given time; they
+    // are forgotten until their next entry
+    public List<Long> takeUsersTouchedBefore(long time) {
+        List<Long> users = new ArrayList<>();
+        touchedUsers.forEach((userId, firstEntryAt) -> {
+            if (firstEntryAt < time && touchedUsers.remove(userId, firstEntryAt)) {
+                users.add(userId);
+            }
+        });
+        return users;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void writeLoop() {
+        List<PendingEntry> batch = new ArrayList<>();
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingEntry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    // Whatever queued up while the previous batch was being written goes in this one
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    write(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Points ledger batch failed", e);
+                    batch.forEach(entry -> entry.result.completeExceptionally(e));
+                }
+                batch.clear();
+            }
+        } finally {
+            // No entry may wait for a writer that is gone, including ones queued after this
+            batch.forEach(entry -> entry.result.completeExceptionally(
+                    new IllegalStateException("Points ledger is stopped")));
+            writerStopped = true;
+            failQueued();
+        }
+    }
+
+    private void failQueued() {
+        List<PendingEntry> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(entry -> entry.result.completeExceptionally(
+                new IllegalStateException("Points ledger is stopped")));
+    }
+
+    private void write(List<PendingEntry> batch) {
+        try {
+            boolean[] inserted = new TransactionTemplate(transactionManager).execute(status -> insertAll(batch));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(inserted[i]);
+            }
+        } catch (RuntimeException e) {
+            // One bad entry (e.g. an unknown user) must not fail the others: retry them one by one
+            for (PendingEntry entry : batch) {
+                try {
+                    entry.result.complete(new TransactionTemplate(transactionManager).execute(status ->
+                            appendNow(entry.userId, entry.points, entry.xp, entry.reason, entry.reference)));
+                } catch (RuntimeException entryFailure) {
+                    entry.result.completeExceptionally(entryFailure);
+                }
+            }
+        }
+    }
+
+    private boolean[] insertAll(List<PendingEntry> batch) {
+        Timestamp now = now();
+        List<Object[]> rows = new ArrayList<>();
+        for (PendingEntry entry : batch) {
+            rows.add(new Object[]{entry.userId, entry.points, entry.xp, entry.reason, entry.reference, now});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_ENTRY, rows);
+
+        // Only entries that were actually inserted count; a duplicate reference inserts nothing.
+        // Relies on per-statement update counts, which is the MySQL driver's default.
+        boolean[] inserted = new boolean[batch.size()];
+        Map<Long, long[]> deltas = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            inserted[i] = counts[i] != 0;
+            if (inserted[i]) {
+                PendingEntry entry = batch.get(i);
+                long[] delta = deltas.computeIfAbsent(entry.userId, id -> new long[2]);
+                delta[0] += entry.points;
+                delta[1] += entry.xp;
+            }
+        }
+        deltas.forEach((userId, delta) -> {
+            boolean leveledUp = applyDelta(userId, Math.toIntExact(delta[0]), Math.toIntExact(delta[1]));
+            changed(userId, delta[0], delta[1], leveledUp);
+        });
+        return inserted;
+    }
+
+    // Adds to the running totals on users and resolves level-ups. The first UPDATE keeps the
+    // row locked until the transaction ends, so the level read and written after it cannot
+    // interleave with another change. Returns whether the user went up a level.
+    private boolean applyDelta(Long userId, int points, int xp) {
+        if (userRepository.addPointsAndXp(userId, points, xp, now().toLocalDateTime()) == 0) {
+            throw new RuntimeException("User not found");
+        }
+        if (xp <= 0) {
+            return false;
+        }
+
+        UserLevelState state = userRepository.findLevelStateById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (state.getXpActuel() < state.getXpProchainNiveau()) {
+            return false;
+        }
+
+        LevelProgression.Progress progress = LevelProgression.resolve(
+                state.getNiveau(), state.getXpActuel(), state.getXpProchainNiveau());
+        userRepository.applyLevelUp(userId, progress.level(), state.getXpActuel() - progress.xp(),
+                progress.nextLevelXp(), progress.rank());
+        return true;
+    }
+
+    private void changed(Long userId, long points, long xp, boolean leveledUp) {
+        touchedUsers.putIfAbsent(userId, System.currentTimeMillis());
+        publisher.publishEvent(new PointsChangedEvent(userId, points, xp, leveledUp));
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+
+    private static final class PendingEntry {
+        private final Long userId;
+        private final int points;
+        private final int xp;
+        private final String reason;
+        private final String reference;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private PendingEntry(Long userId, int points, int xp, String reason, String reference) {
+            this.userId = userId;
+            this.points = points;
+            this.xp = xp;
+            this.reason = reason;
+            this.reference = reference;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.mollysou.progression;
+
+import java.util.Arrays;
+
+// Level curve of the app: a level needs 1000 XP at level 1, then 1000 + 100L below level 10,
+// 2000 + 200L below 50, 10000 + 500L below 100, 50000 + 1000L below 150 and 150000 + 2000L
+// above. The XP needed to reach every level is precomputed once, so resolving a grant of
+// any size is a binary search instead of one loop pass per level gained.
+public final class LevelProgression {
+
+    private static final int FIRST_LEVEL_XP = 1000;
+    private static final int[] RANK_LEVELS = {10, 30, 50, 100, 200};
+    private static final String[] RANKS = {"UNRANKED", "BRONZE", "SILVER", "GOLD", "PLATINUM", "DIAMOND"};
+
+    // CUMULATIVE[l] = total XP from the start of level 1 to the start of level l. The table
+    // goes past any reachable XP balance, which is an int.
+    private static final long[] CUMULATIVE = buildTable();
+
+    private LevelProgression() {
+    }
+
+    public record Progress(int level, int xp, int nextLevelXp, String rank) {
+    }
+
+    // XP needed to go from level to level + 1
+    public static int xpForLevel(int level) {
+        if (level <= 1) {
+            return FIRST_LEVEL_XP;
+        } else if (level < 10) {
+            return 1000 + (level * 100);
+        } else if (level < 50) {
+            return 2000 + (level * 200);
+        } else if (level < 100) {
+            return 10000 + (level * 500);
+        } else if (level < 150) {
+            return 50000 + (level * 1000);
+        } else {
+            return 150000 + (level * 2000);
+        }
+    }
+
+    public static String rankForLevel(int level) {
+        int index = Arrays.binarySearch(RANK_LEVELS, level);
+        return RANKS[index >= 0 ? index + 1 : -index - 1];
+    }
+
+    // Level reached with totalXp earned since the start of level 1
+    public static Progress fromTotalXp(long totalXp) {
+        int level = levelAt(Math.max(totalXp, 0));
+        return new Progress(level, (int) (totalXp - CUMULATIVE[level]), xpForLevel(level), rankForLevel(level));
+    }
+
+    // Total XP earned since the start of level 1 by someone at the given level and XP
+    public static long totalXp(int level, int xp) {
+        return CUMULATIVE[level] + xp;
+    }
+
+    // Applies the level-ups of a stored state. The threshold of the current level is taken
+    // as stored, since it may predate the current curve; the following ones come from the table.
+    public static Progress resolve(int level, int xp, int nextLevelXp) {
+        if (xp < nextLevelXp) {
+            return new Progress(level, xp, nextLevelXp, rankForLevel(level));
+        }
+        int start = level + 1;
+        long target = CUMULATIVE[start] + (long) xp - nextLevelXp;
+        int reached = levelAt(target);
+        return new Progress(reached, (int) (target - CUMULATIVE[reached]), xpForLevel(reached), rankForLevel(reached));
+    }
+
+    // Highest level whose start is at or below the given cumulative XP
+    private static int levelAt(long cumulativeXp) {
+        int low = 1;
+        int high = CUMULATIVE.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (CUMULATIVE[middle] <= cumulativeXp) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private static long[] buildTable() {
+        // Covers two full int ranges past the level of any stored state
+        long limit = 4L * Integer.MAX_VALUE;
+        long[] table = new long[64];
+        int level = 1;
+        while (table[level] <= limit) {
+            if (level + 1 == table.length) {
+                table = Arrays.copyOf(table, table.length * 2);
+            }
+            table[level + 1] = table[level] + xpForLevel(level);
+            level++;
+        }
+        return Arrays.copyOf(table, level + 1);
+    }
+}
@@ -0,0 +1,232 @@
+package com.mollysou.push;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Server-sent event connections, by user. A connection is an async request held open by the
+// servlet container, so an idle one costs no thread, only its emitter and an empty buffer.
+// Messages are queued in that buffer and written by a virtual thread that exists only while
+// the buffer has something to send, so a slow client holds up nothing but its own writes.
+// The buffer keeps the latest message of each key: a message replaces a queued one with the
+// same key, and past bufferSize keys the oldest is dropped.
+@Component
+public class PushHub {
+
+    @Value("${mollysou.push.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${mollysou.push.buffer-size:16}")
+    private int bufferSize;
+
+    @Value("${mollysou.push.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${mollysou.push.heartbeat-ms:30000}")
+    private long heartbeatMs;
+
+    // Replaced, never modified in place
+    private final Map<Long, List<Connection>> connections = new ConcurrentHashMap<>();
+    private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    // Opens a connection and queues the initial messages on it. A user's oldest connection
+    // is closed past maxConnectionsPerUser.
+    public SseEmitter connect(Long userId, List<Message> initial) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(userId, emitter);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+
+        List<Connection> evicted = new ArrayList<>();
+        connections.compute(userId, (id, current) -> {
+            List<Connection> updated = current != null ? new ArrayList<>(current) : new ArrayList<>();
+            updated.add(connection);
+            while (updated.size() > maxConnectionsPerUser) {
+                evicted.add(updated.remove(0));
+            }
+            return List.copyOf(updated);
+        });
+        connectionCount.addAndGet(1 - evicted.size());
+        for (Connection old : evicted) {
+            old.close();
+        }
+        for (Message message : initial) {
+            connection.offer(message.key(), message.toEvent());
+        }
+        return emitter;
+    }
+
+    public boolean isConnected(Long userId) {
+        return connections.containsKey(userId);
+    }
+
+    public void publish(Long userId, Message message) {
+        List<Connection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+        for (Connection connection : userConnections) {
+            connection.offer(message.key(), message.toEvent());
+        }
+    }
+
+    // Runs a task on the hub's virtual threads, e.g. to read what is about to be published
+    // without holding up the thread that noticed the change
+    public void execute(Runnable task) {
+        writers.execute(task);
+    }
+
+    // Keeps proxies from closing quiet connections and finds the ones whose client is gone;
+    // connections that sent something since the last round are skipped
+    @Scheduled(fixedDelayString = "${mollysou.push.heartbeat-ms:30000}")
+    public void heartbeat() {
+        long quietSince = System.currentTimeMillis() - heartbeatMs;
+        for (List<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                if (connection.lastSentAt < quietSince) {
+                    connection.offer("heartbeat", SseEmitter.event().comment("ping"));
+                }
+            }
+        }
+    }
+
+    public int getConnectionCount() { return connectionCount.get(); }
+
+    public int getUserCount() { return connections.size(); }
+
+    public long getSentCount() { return sent.get(); }
+
+    public long getCoalescedCount() { return coalesced.get(); }
+
+    public long getDroppedCount() { return dropped.get(); }
+
+    public long getFailedCount() { return failed.get(); }
+
+    @PreDestroy
+    public void shutdown() {
+        for (List<Connection> userConnections : connections.values()) {
+            userConnections.forEach(Connection::close);
+        }
+        writers.shutdownNow();
+    }
+
+    private void remove(Connection connection) {
+        connection.closed = true;
+        boolean[] removed = {false};
+        connections.computeIfPresent(connection.userId, (id, current) -> {
+            if (!current.contains(connection)) {
+                return current;
+            }
+            removed[0] = true;
+            List<Connection> updated = new ArrayList<>(current);
+            updated.remove(connection);
+            return updated.isEmpty() ? null : List.copyOf(updated);
+        });
+        if (removed[0]) {
+            connectionCount.decrementAndGet();
+        }
+    }
+
+    // One event for clients; messages with the same key supersede each other while queued
+    public record Message(String name, String key, Object data) {
+
+        public Message(String name, Object data) {
+            this(name, name, data);
+        }
+
+        private SseEmitter.SseEventBuilder toEvent() {
+            return SseEmitter.event().name(name).data(data);
+        }
+    }
+
+    private final class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        // Guarded by this
+        private final Map<String, SseEmitter.SseEventBuilder> pending = new LinkedHashMap<>();
+        private boolean writing;
+        private volatile boolean closed;
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        private Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(String key, SseEmitter.SseEventBuilder event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pending.put(key, event) != null) {
+                    coalesced.incrementAndGet();
+                } else if (pending.size() > bufferSize) {
+                    // The client is not keeping up: its oldest message goes
+                    Iterator<SseEmitter.SseEventBuilder> oldest = pending.values().iterator();
+                    oldest.next();
+                    oldest.remove();
+                    dropped.incrementAndGet();
+                }
+                if (writing) {
+                    return;
+                }
+                writing = true;
+            }
+            writers.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder next;
+                synchronized (this) {
+                    Iterator<SseEmitter.SseEventBuilder> it = pending.values().iterator();
+                    if (closed || !it.hasNext()) {
+                        writing = false;
+                        return;
+                    }
+                    next = it.next();
+                    it.remove();
+                }
+                try {
+                    emitter.send(next);
+                    lastSentAt = System.currentTimeMillis();
+                    sent.incrementAndGet();
+                } catch (IOException | IllegalStateException e) {
+                    // The container reports the broken connection through onError as well
+                    failed.incrementAndGet();
+                    synchronized (this) {
+                        pending.clear();
+                        writing = false;
+                    }
+                    remove(this);
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            closed = true;
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.mollysou.ratelimit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private RateLimiters rateLimiters;
+
+    // POST /api/games/results is limited by GameController, which knows the users in the body
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiters.getAddPoints()))
+                .addPathPatterns("/api/users/*/add-points");
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiters.getAddXp()))
+                .addPathPatterns("/api/users/*/add-xp");
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiters.getUpdatePointsXp()))
+                .addPathPatterns("/api/users/*/update-points-xp");
+    }
+}
@@ -0,0 +1,63 @@
+package com.mollysou.ratelimit;
+
+import com.mollysou.dto.RateLimitMetricsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The token buckets in front of the reward endpoints, one limiter per endpoint so that each
+// has its own budget per user. Game results take one token per result, from a larger bucket.
+@Component
+public class RateLimiters {
+
+    @Value("${mollysou.ratelimit.idle-ms:300000}")
+    private long idleMs;
+
+    private final TokenBucketLimiter addPoints;
+    private final TokenBucketLimiter addXp;
+    private final TokenBucketLimiter updatePointsXp;
+    private final TokenBucketLimiter gameResults;
+
+    public RateLimiters(@Value("${mollysou.ratelimit.rewards.capacity:10}") int capacity,
+                        @Value("${mollysou.ratelimit.rewards.refill-per-second:0.5}") double refillPerSecond,
+                        @Value("${mollysou.ratelimit.games.capacity:100}") int gameCapacity,
+                        @Value("${mollysou.ratelimit.games.refill-per-second:0.5}") double gameRefillPerSecond) {
+        long now = System.currentTimeMillis();
+        addPoints = new TokenBucketLimiter("add-points", capacity, refillPerSecond, now);
+        addXp = new TokenBucketLimiter("add-xp", capacity, refillPerSecond, now);
+        updatePointsXp = new TokenBucketLimiter("update-points-xp", capacity, refillPerSecond, now);
+        gameResults = new TokenBucketLimiter("games-results", gameCapacity, gameRefillPerSecond, now);
+    }
+
+    @Scheduled(fixedDelayString = "${mollysou.ratelimit.evict-delay-ms:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (TokenBucketLimiter limiter : getAll()) {
+            limiter.evictIdle(now, idleMs);
+        }
+    }
+
+    public TokenBucketLimiter getAddPoints() { return addPoints; }
+
+    public TokenBucketLimiter getAddXp() { return addXp; }
+
+    public TokenBucketLimiter getUpdatePointsXp() { return updatePointsXp; }
+
+    public TokenBucketLimiter getGameResults() { return gameResults; }
+
+    public List<TokenBucketLimiter> getAll() {
+        return List.of(addPoints, addXp, updatePointsXp, gameResults);
+    }
+
+    public List<RateLimitMetricsDTO> getMetrics() {
+        List<RateLimitMetricsDTO> metrics = new ArrayList<>();
+        for (TokenBucketLimiter limiter : getAll()) {
+            metrics.add(new RateLimitMetricsDTO(limiter.getName(), limiter.getAllowedCount(),
+                    limiter.getRejectedCount(), limiter.getBucketCount()));
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,116 @@
+package com.mollysou.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Token buckets by key, without locks. Each bucket is one long packing the tokens left (in
+// thousandths, low TOKEN_BITS bits) and the time they were last refilled (ms since the
+// limiter was created, high bits); taking a token is a single CAS on it, and a rejection
+// reads it without writing. A bucket that is full again is the same as a missing one, so
+// buckets idle that long are evicted.
+public class TokenBucketLimiter {
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLIS_PER_TOKEN = 1000;
+
+    private final String name;
+    private final long capacity;
+    // Thousandths of a token per ms, i.e. tokens per second
+    private final double refillRate;
+    private final long origin;
+    private final Map<Long, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public TokenBucketLimiter(String name, int capacity, double refillPerSecond, long nowMs) {
+        if (capacity <= 0 || (long) capacity * MILLIS_PER_TOKEN > TOKEN_MASK || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Invalid token bucket for " + name);
+        }
+        this.name = name;
+        this.capacity = capacity * MILLIS_PER_TOKEN;
+        this.refillRate = refillPerSecond;
+        this.origin = nowMs;
+    }
+
+    // Takes a token from the key's bucket: 0 if one was available, otherwise the ms until
+    // the next one
+    public long tryAcquire(long key, long nowMs) {
+        return tryAcquire(key, 1, nowMs);
+    }
+
+    // Takes several tokens at once, all or nothing; more than the capacity counts as the
+    // capacity, so that a request can always succeed from a full bucket
+    public long tryAcquire(long key, int permits, long nowMs) {
+        long now = nowMs - origin;
+        long cost = Math.min(Math.max(permits, 1) * MILLIS_PER_TOKEN, capacity);
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            AtomicLong created = new AtomicLong(pack(now, capacity - cost));
+            bucket = buckets.putIfAbsent(key, created);
+            if (bucket == null) {
+                allowed.increment();
+                return 0;
+            }
+        }
+        while (true) {
+            long state = bucket.get();
+            long refilled = refill(state, now);
+            long tokens = refilled & TOKEN_MASK;
+            if (tokens < cost) {
+                rejected.increment();
+                return Math.max(1, (long) Math.ceil((cost - tokens) / refillRate));
+            }
+            if (bucket.compareAndSet(state, refilled - cost)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    // Removes the buckets that have refilled completely and were not used for idleMs
+    public int evictIdle(long nowMs, long idleMs) {
+        long now = nowMs - origin;
+        int evicted = 0;
+        for (Map.Entry<Long, AtomicLong> entry : buckets.entrySet()) {
+            long state = entry.getValue().get();
+            // A token taken between this check and the removal is given back, which is harmless
+            if (now - (state >>> TOKEN_BITS) >= idleMs && (refill(state, now) & TOKEN_MASK) == capacity
+                    && buckets.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public String getName() { return name; }
+
+    public int getBucketCount() { return buckets.size(); }
+
+    public long getAllowedCount() { return allowed.sum(); }
+
+    public long getRejectedCount() { return rejected.sum(); }
+
+    // Adds the tokens earned since the last refill. The time only moves forward by what the
+    // added tokens were worth (rounded up, never past now), so frequent calls neither lose
+    // nor invent fractions of a token.
+    private long refill(long state, long now) {
+        long last = state >>> TOKEN_BITS;
+        long tokens = state & TOKEN_MASK;
+        long elapsed = now - last;
+        if (elapsed <= 0 || tokens == capacity) {
+            return tokens == capacity ? pack(Math.max(now, last), tokens) : state;
+        }
+        long added = (long) (elapsed * refillRate);
+        if (tokens + added >= capacity) {
+            return pack(now, capacity);
+        }
+        return pack(last + (long) Math.ceil(added / refillRate), tokens + added);
+    }
+
+    private static long pack(long time, long tokens) {
+        return (time << TOKEN_BITS) | tokens;
+    }
+}
@@ -0,0 +1,8 @@
+package com.mollysou.repositories;
+
+// Projection of the grouped per-category product count query
+public interface CategoryProductCount {
+    Long getCategoryId();
+    Long getTotal();
+    Long getAvailable();
+}
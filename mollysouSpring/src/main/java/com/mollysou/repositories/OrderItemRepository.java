@@ -0,0 +1,21 @@
+package com.mollysou.repositories;
+
+import com.mollysou.dto.OrderItemDTO;
+import com.mollysou.entities.OrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    @Query("select new com.mollysou.dto.OrderItemDTO(i.order.id, p.id, p.nom, p.image, i.quantity, i.price) "
+            + "from OrderItem i join i.product p where i.order.id = :orderId order by i.id")
+    List<OrderItemDTO> findDtoByOrderId(@Param("orderId") Long orderId);
+
+    @Query("select new com.mollysou.dto.OrderItemDTO(i.order.id, p.id, p.nom, p.image, i.quantity, i.price) "
+            + "from OrderItem i join i.product p where i.order.id in :orderIds order by i.id")
+    List<OrderItemDTO> findDtoByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,31 @@
+package com.mollysou.repositories;
+
+import com.mollysou.dto.OrderDTO;
+import com.mollysou.entities.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    String DTO_SELECT = "select new com.mollysou.dto.OrderDTO(o.id, o.totalAmount, o.orderDate, o.status, o.itemCount, o.pointsRedeemed) "
+            + "from Order o where o.user.id = :userId";
+
+    Optional<Order> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    // Keyset pages over (user_id, orderDate, id), newest first; the Pageable only carries the limit
+    @Query(DTO_SELECT + " order by o.orderDate desc, o.id desc")
+    List<OrderDTO> findHistoryFirstPage(@Param("userId") Long userId, Pageable limit);
+
+    @Query(DTO_SELECT + " and (o.orderDate < :lastDate or (o.orderDate = :lastDate and o.id < :lastId)) "
+            + "order by o.orderDate desc, o.id desc")
+    List<OrderDTO> findHistoryAfter(@Param("userId") Long userId, @Param("lastDate") LocalDateTime lastDate,
+                                    @Param("lastId") Long lastId, Pageable limit);
+}
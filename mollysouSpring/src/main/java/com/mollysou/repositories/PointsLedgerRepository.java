@@ -0,0 +1,23 @@
+package com.mollysou.repositories;
+
+import com.mollysou.dto.PointsEntryDTO;
+import com.mollysou.entities.PointsLedgerEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface PointsLedgerRepository extends JpaRepository<PointsLedgerEntry, Long> {
+
+    String DTO_SELECT = "select new com.mollysou.dto.PointsEntryDTO(e.id, e.points, e.xp, e.reason, e.reference, e.createdAt) "
+            + "from PointsLedgerEntry e where e.userId = :userId";
+
+    // Keyset pages over (user_id, id), newest first; the Pageable only carries the limit
+    @Query(DTO_SELECT + " order by e.id desc")
+    List<PointsEntryDTO> findHistoryFirstPage(@Param("userId") Long userId, Pageable limit);
+
+    @Query(DTO_SELECT + " and e.id < :lastId order by e.id desc")
+    List<PointsEntryDTO> findHistoryAfter(@Param("userId") Long userId, @Param("lastId") Long lastId, Pageable limit);
+}
@@ -0,0 +1,7 @@
+package com.mollysou.repositories;
+
+import com.mollysou.entities.PointsSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PointsSnapshotRepository extends JpaRepository<PointsSnapshot, Long> {
+}
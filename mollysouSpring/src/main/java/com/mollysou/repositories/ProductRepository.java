@@ -1,10 +1,51 @@
 package com.mollysou.repositories;
 
+import com.mollysou.dto.ProductDTO;
 import com.mollysou.entities.Product;
+import com.mollysou.search.ProductFacetDoc;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    // Builds ProductDTOs straight from one joined row, without loading managed entities
+    String DTO_SELECT = "select new com.mollysou.dto.ProductDTO(p.id, p.nom, p.description, p.prix, p.image, "
+            + "p.stock, p.rating, c.nom, c.id, p.disponible) from Product p left join p.category c";
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategoryId(Long categoryId);
     List<Product> findByDisponibleTrue();
+
+    @Query(DTO_SELECT)
+    List<ProductDTO> findAllDtos();
+
+    @Query(DTO_SELECT + " where p.category.id = :categoryId")
+    List<ProductDTO> findDtoByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query(DTO_SELECT + " where p.disponible = true")
+    List<ProductDTO> findAvailableDtos();
+
+    @Query(DTO_SELECT + " where p.id = :id")
+    Optional<ProductDTO> findDtoById(@Param("id") Long id);
+
+    @Query(DTO_SELECT + " where p.id in :ids")
+    List<ProductDTO> findDtoByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.mollysou.search.ProductFacetDoc(p.id, c.id, p.prix, p.rating, p.stock, p.disponible) "
+            + "from Product p left join p.category c")
+    List<ProductFacetDoc> findAllFacetDocs();
+
+    @Query("select p.id as id, p.stock as stock from Product p where p.id in :ids")
+    List<ProductStockLevel> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.category.id as categoryId, count(p) as total, "
+            + "sum(case when p.disponible = true then 1 else 0 end) as available "
+            + "from Product p where p.category is not null group by p.category.id")
+    List<CategoryProductCount> countByCategory();
+
+    @Query("select p from Product p left join fetch p.category where p.id = :id")
+    Optional<Product> findWithCategoryById(@Param("id") Long id);
 }
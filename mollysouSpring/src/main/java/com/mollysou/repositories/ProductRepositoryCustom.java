@@ -0,0 +1,13 @@
+package com.mollysou.repositories;
+
+import com.mollysou.dto.ProductDTO;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    // Keyset page: rows strictly after (afterValue, afterId) in the given order.
+    // Pass a null afterId for the first page.
+    List<ProductDTO> findPage(boolean availableOnly, Long categoryId, ProductSortField sort, boolean descending,
+                           Object afterValue, Long afterId, int limit);
+}
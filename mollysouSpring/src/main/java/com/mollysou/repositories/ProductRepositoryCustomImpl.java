@@ -0,0 +1,85 @@
+package com.mollysou.repositories;
+
+import com.mollysou.dto.ProductDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Rows without a sort key (no price or rating) come last in either direction, by id. The
+    // rows with a key and the rows without are read by two keyset queries, so that each one
+    // still follows a (..., sort column, id) index: the second only runs once the first is
+    // exhausted, and a cursor with a null value points into it.
+    @Override
+    public List<ProductDTO> findPage(boolean availableOnly, Long categoryId, ProductSortField sort, boolean descending,
+                                  Object afterValue, Long afterId, int limit) {
+        String column = "p." + sort.getProperty();
+        String comparator = descending ? "<" : ">";
+        String direction = descending ? " desc" : " asc";
+
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (availableOnly) {
+            conditions.add("p.disponible = true");
+        }
+        if (categoryId != null) {
+            conditions.add("p.category.id = :categoryId");
+            parameters.put("categoryId", categoryId);
+        }
+
+        if (sort == ProductSortField.ID) {
+            if (afterId != null) {
+                conditions.add("p.id " + comparator + " :afterId");
+                parameters.put("afterId", afterId);
+            }
+            return select(conditions, parameters, "p.id" + direction, limit);
+        }
+
+        List<ProductDTO> rows = new ArrayList<>();
+        boolean afterNullKey = afterId != null && afterValue == null;
+        if (!afterNullKey) {
+            List<String> keyed = new ArrayList<>(conditions);
+            Map<String, Object> keyedParameters = new LinkedHashMap<>(parameters);
+            keyed.add(column + " is not null");
+            if (afterId != null) {
+                keyed.add("(" + column + " " + comparator + " :afterValue or ("
+                        + column + " = :afterValue and p.id " + comparator + " :afterId))");
+                keyedParameters.put("afterValue", afterValue);
+                keyedParameters.put("afterId", afterId);
+            }
+            rows.addAll(select(keyed, keyedParameters, column + direction + ", p.id" + direction, limit));
+        }
+        if (rows.size() < limit) {
+            List<String> unkeyed = new ArrayList<>(conditions);
+            Map<String, Object> unkeyedParameters = new LinkedHashMap<>(parameters);
+            unkeyed.add(column + " is null");
+            if (afterNullKey) {
+                unkeyed.add("p.id " + comparator + " :afterId");
+                unkeyedParameters.put("afterId", afterId);
+            }
+            rows.addAll(select(unkeyed, unkeyedParameters, "p.id" + direction, limit - rows.size()));
+        }
+        return rows;
+    }
+
+    private List<ProductDTO> select(List<String> conditions, Map<String, Object> parameters, String orderBy, int limit) {
+        StringBuilder jpql = new StringBuilder(ProductRepository.DTO_SELECT);
+        if (!conditions.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", conditions));
+        }
+        jpql.append(" order by ").append(orderBy);
+
+        TypedQuery<ProductDTO> query = entityManager.createQuery(jpql.toString(), ProductDTO.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
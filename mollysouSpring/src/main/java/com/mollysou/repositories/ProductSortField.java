@@ -0,0 +1,39 @@
+package com.mollysou.repositories;
+
+// Sort orders supported by keyset listing; every order is made unique by appending the id.
+public enum ProductSortField {
+    ID("id"),
+    PRICE("prix"),
+    RATING("rating"),
+    NAME("nom");
+
+    private final String property;
+
+    ProductSortField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static ProductSortField fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return ID;
+        }
+        switch (value.toLowerCase()) {
+            case "id":
+                return ID;
+            case "price":
+            case "prix":
+                return PRICE;
+            case "rating":
+                return RATING;
+            case "name":
+            case "nom":
+                return NAME;
+            default:
+                throw new IllegalArgumentException("Unknown sort: " + value);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.mollysou.repositories;
+
+// Projection of the stock column, used to reconcile in-memory stock counters
+public interface ProductStockLevel {
+    Long getId();
+    Integer getStock();
+}
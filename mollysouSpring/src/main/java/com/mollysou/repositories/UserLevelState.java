@@ -0,0 +1,11 @@
+package com.mollysou.repositories;
+
+// Projection of the points and progression columns, read after an XP delta to resolve
+// level-ups and to push a user's new totals
+public interface UserLevelState {
+    Integer getNiveau();
+    Integer getXpActuel();
+    Integer getXpProchainNiveau();
+    Integer getPoints();
+    String getRank();
+}
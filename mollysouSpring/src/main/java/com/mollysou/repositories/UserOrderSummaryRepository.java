@@ -0,0 +1,7 @@
+package com.mollysou.repositories;
+
+import com.mollysou.entities.UserOrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UserOrderSummaryRepository extends JpaRepository<UserOrderSummary, Long> {
+}
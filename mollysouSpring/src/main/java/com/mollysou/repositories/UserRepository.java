@@ -2,9 +2,33 @@ package com.mollysou.repositories;
 
 import com.mollysou.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
+
+    // Atomic deltas: concurrent rewards queue on the row lock instead of overwriting each other
+    @Modifying
+    @Query("UPDATE User u SET u.points = u.points + :points, u.xpActuel = u.xpActuel + :xp, " +
+            "u.updatedAt = :now WHERE u.id = :userId")
+    int addPointsAndXp(@Param("userId") Long userId, @Param("points") int points, @Param("xp") int xp,
+                       @Param("now") LocalDateTime now);
+
+    @Query("SELECT u.niveau AS niveau, u.xpActuel AS xpActuel, u.xpProchainNiveau AS xpProchainNiveau, " +
+            "u.points AS points, u.rank AS rank FROM User u WHERE u.id = :userId")
+    Optional<UserLevelState> findLevelStateById(@Param("userId") Long userId);
+
+    // XP past the crossed thresholds is kept by subtracting what they consumed, not by
+    // writing an absolute value
+    @Modifying
+    @Query("UPDATE User u SET u.niveau = :level, u.xpActuel = u.xpActuel - :consumedXp, " +
+            "u.xpProchainNiveau = :nextLevelXp, u.rank = :rank WHERE u.id = :userId")
+    int applyLevelUp(@Param("userId") Long userId, @Param("level") int level, @Param("consumedXp") int consumedXp,
+                     @Param("nextLevelXp") int nextLevelXp, @Param("rank") String rank);
 }
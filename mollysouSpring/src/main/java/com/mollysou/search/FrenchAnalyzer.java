@@ -0,0 +1,88 @@
+package com.mollysou.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Lowercases, strips accents, drops stop words and applies a light French stemmer
+// (plural and feminine endings) so that "Chaussures", "chaussure" and "CHAUSSURE" match.
+public final class FrenchAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "au", "aux", "avec", "c", "ce", "ces", "cet", "cette", "d", "dans", "de", "des", "du",
+            "elle", "en", "est", "et", "il", "j", "l", "la", "le", "les", "leur", "leurs", "m", "ma",
+            "mes", "mon", "n", "ne", "nos", "notre", "ou", "par", "pas", "pour", "qu", "que", "qui",
+            "s", "sa", "se", "ses", "son", "sont", "sur", "t", "ta", "tes", "ton", "un", "une", "vos",
+            "votre", "y"
+    );
+
+    private FrenchAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        String normalized = fold(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                String token = normalized.substring(start, i);
+                if (!STOP_WORDS.contains(token)) {
+                    tokens.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT)
+                .replace("œ", "oe")
+                .replace("æ", "ae");
+        return Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+    }
+
+    static String stem(String token) {
+        String word = token;
+        if (word.length() < 4 || Character.isDigit(word.charAt(0))) {
+            return word;
+        }
+
+        // Plurals
+        if (word.length() > 5 && word.endsWith("aux")) {
+            word = word.substring(0, word.length() - 3) + "al";
+        } else if (word.endsWith("s") || word.endsWith("x")) {
+            word = word.substring(0, word.length() - 1);
+        }
+
+        // Feminine and common suffix variants
+        if (word.length() > 5 && word.endsWith("ienne")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.length() > 4 && (word.endsWith("elle") || word.endsWith("ette"))) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.length() > 4 && word.endsWith("euse")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.length() > 4 && word.endsWith("ive")) {
+            return word.substring(0, word.length() - 2) + "f";
+        }
+        if (word.length() > 4 && word.endsWith("ere")) {
+            return word.substring(0, word.length() - 3) + "er";
+        }
+        if (word.length() > 4 && word.endsWith("e")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+}
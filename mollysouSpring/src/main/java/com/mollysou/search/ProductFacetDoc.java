@@ -0,0 +1,34 @@
+package com.mollysou.search;
+
+import java.math.BigDecimal;
+
+// Columns of a product that take part in faceted filtering
+public class ProductFacetDoc {
+    private final Long id;
+    private final Long categoryId;
+    private final BigDecimal prix;
+    private final Double rating;
+    private final Integer stock;
+    private final Boolean disponible;
+
+    public ProductFacetDoc(Long id, Long categoryId, BigDecimal prix, Double rating, Integer stock, Boolean disponible) {
+        this.id = id;
+        this.categoryId = categoryId;
+        this.prix = prix;
+        this.rating = rating;
+        this.stock = stock;
+        this.disponible = disponible;
+    }
+
+    public Long getId() { return id; }
+
+    public Long getCategoryId() { return categoryId; }
+
+    public BigDecimal getPrix() { return prix; }
+
+    public Double getRating() { return rating; }
+
+    public Integer getStock() { return stock; }
+
+    public Boolean getDisponible() { return disponible; }
+}
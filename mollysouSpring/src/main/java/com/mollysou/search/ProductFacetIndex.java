@@ -0,0 +1,360 @@
+package com.mollysou.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Bitmap indexes over the product table. Each product gets a dense ordinal and every
+// filterable value (category, price bucket, rating bucket, in-stock, disponible) owns a
+// bitmap of ordinals, so combined filters are ANDs of bitmaps and facet counts are
+// cardinalities. Dense ordinals keep plain BitSets compact without an extra dependency.
+public class ProductFacetIndex {
+
+    // Lower bounds of the price buckets; the last bucket is open-ended
+    private static final double[] PRICE_BOUNDS = {0, 10, 25, 50, 100, 250, 500};
+    private static final int RATING_BUCKETS = 6; // floor(rating) in 0..5
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<Long> ids = new ArrayList<>();
+    private final List<Integer> freeOrdinals = new ArrayList<>();
+    private double[] prices = new double[64];
+    private double[] ratings = new double[64];
+
+    private final BitSet live = new BitSet();
+    private final BitSet disponible = new BitSet();
+    private final BitSet inStock = new BitSet();
+    private final Map<Long, BitSet> categories = new HashMap<>();
+    private final BitSet[] priceBuckets = newBitSets(PRICE_BOUNDS.length);
+    private final BitSet[] ratingBuckets = newBitSets(RATING_BUCKETS);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(ProductFacetDoc doc) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinals.get(doc.getId());
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                clearBits(ordinal);
+            } else {
+                ordinal = allocate(doc.getId());
+            }
+
+            live.set(ordinal);
+            if (Boolean.TRUE.equals(doc.getDisponible())) {
+                disponible.set(ordinal);
+            }
+            if (doc.getStock() != null && doc.getStock() > 0) {
+                inStock.set(ordinal);
+            }
+            if (doc.getCategoryId() != null) {
+                categories.computeIfAbsent(doc.getCategoryId(), id -> new BitSet()).set(ordinal);
+            }
+            if (doc.getPrix() != null) {
+                double price = doc.getPrix().doubleValue();
+                prices[ordinal] = price;
+                priceBuckets[priceBucket(price)].set(ordinal);
+            }
+            double rating = doc.getRating() != null ? doc.getRating() : 0.0;
+            ratings[ordinal] = rating;
+            ratingBuckets[ratingBucket(rating)].set(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal != null) {
+                clearBits(ordinal);
+                ids.set(ordinal, null);
+                freeOrdinals.add(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            ids.clear();
+            freeOrdinals.clear();
+            live.clear();
+            disponible.clear();
+            inStock.clear();
+            categories.clear();
+            for (BitSet bucket : priceBuckets) {
+                bucket.clear();
+            }
+            for (BitSet bucket : ratingBuckets) {
+                bucket.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FacetResult query(FacetQuery query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet category = categoryFilter(query);
+            BitSet price = priceFilter(query);
+            BitSet rating = ratingFilter(query);
+            BitSet stock = query.getInStock() == null ? null : flagFilter(inStock, query.getInStock());
+            BitSet dispo = query.getDisponible() == null ? null : flagFilter(disponible, query.getDisponible());
+
+            BitSet matches = and(live, category, price, rating, stock, dispo);
+
+            List<Long> pageIds = new ArrayList<>();
+            int skipped = 0;
+            for (int i = matches.nextSetBit(0); i >= 0 && pageIds.size() < limit; i = matches.nextSetBit(i + 1)) {
+                if (skipped++ >= offset) {
+                    pageIds.add(ids.get(i));
+                }
+            }
+
+            // Each facet is counted with every filter applied except its own
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+
+            BitSet withoutCategory = and(live, price, rating, stock, dispo);
+            Map<String, Integer> categoryCounts = new LinkedHashMap<>();
+            for (Map.Entry<Long, BitSet> entry : categories.entrySet()) {
+                int count = intersectionCount(withoutCategory, entry.getValue());
+                if (count > 0) {
+                    categoryCounts.put(String.valueOf(entry.getKey()), count);
+                }
+            }
+            facets.put("category", categoryCounts);
+
+            BitSet withoutPrice = and(live, category, rating, stock, dispo);
+            Map<String, Integer> priceCounts = new LinkedHashMap<>();
+            for (int b = 0; b < PRICE_BOUNDS.length; b++) {
+                priceCounts.put(priceLabel(b), intersectionCount(withoutPrice, priceBuckets[b]));
+            }
+            facets.put("price", priceCounts);
+
+            BitSet withoutRating = and(live, category, price, stock, dispo);
+            Map<String, Integer> ratingCounts = new LinkedHashMap<>();
+            BitSet atLeast = new BitSet();
+            for (int r = RATING_BUCKETS - 1; r >= 1; r--) {
+                atLeast.or(ratingBuckets[r]);
+                ratingCounts.put(r + "+", intersectionCount(withoutRating, atLeast));
+            }
+            facets.put("rating", ratingCounts);
+
+            facets.put("inStock", flagCounts(and(live, category, price, rating, dispo), inStock));
+            facets.put("disponible", flagCounts(and(live, category, price, rating, stock), disponible));
+
+            return new FacetResult(matches.cardinality(), pageIds, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet categoryFilter(FacetQuery query) {
+        if (query.getCategoryId() == null) {
+            return null;
+        }
+        BitSet bits = categories.get(query.getCategoryId());
+        return bits != null ? bits : new BitSet();
+    }
+
+    private BitSet priceFilter(FacetQuery query) {
+        Double min = query.getMinPrice();
+        Double max = query.getMaxPrice();
+        if (min == null && max == null) {
+            return null;
+        }
+        double lo = min != null ? min : Double.NEGATIVE_INFINITY;
+        double hi = max != null ? max : Double.POSITIVE_INFINITY;
+
+        BitSet result = new BitSet();
+        for (int b = 0; b < PRICE_BOUNDS.length; b++) {
+            double bucketLo = b == 0 ? Double.NEGATIVE_INFINITY : PRICE_BOUNDS[b];
+            double bucketHi = b + 1 < PRICE_BOUNDS.length ? PRICE_BOUNDS[b + 1] : Double.POSITIVE_INFINITY;
+            if (bucketHi <= lo || bucketLo > hi) {
+                continue;
+            }
+            if (bucketLo >= lo && bucketHi <= hi) {
+                result.or(priceBuckets[b]);
+            } else {
+                // Bucket straddles a bound: check the exact prices of its members
+                BitSet bucket = priceBuckets[b];
+                for (int i = bucket.nextSetBit(0); i >= 0; i = bucket.nextSetBit(i + 1)) {
+                    if (prices[i] >= lo && prices[i] <= hi) {
+                        result.set(i);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private BitSet ratingFilter(FacetQuery query) {
+        Double min = query.getMinRating();
+        if (min == null) {
+            return null;
+        }
+        BitSet result = new BitSet();
+        int first = Math.max(0, (int) Math.floor(min));
+        for (int r = first; r < RATING_BUCKETS; r++) {
+            BitSet bucket = ratingBuckets[r];
+            if (r >= min) {
+                result.or(bucket);
+            } else {
+                for (int i = bucket.nextSetBit(0); i >= 0; i = bucket.nextSetBit(i + 1)) {
+                    if (ratings[i] >= min) {
+                        result.set(i);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private BitSet flagFilter(BitSet flag, boolean wanted) {
+        if (wanted) {
+            return flag;
+        }
+        BitSet result = (BitSet) live.clone();
+        result.andNot(flag);
+        return result;
+    }
+
+    private Map<String, Integer> flagCounts(BitSet base, BitSet flag) {
+        int withFlag = intersectionCount(base, flag);
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("true", withFlag);
+        counts.put("false", base.cardinality() - withFlag);
+        return counts;
+    }
+
+    private static BitSet and(BitSet base, BitSet... filters) {
+        BitSet result = (BitSet) base.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static int intersectionCount(BitSet a, BitSet b) {
+        BitSet copy = (BitSet) a.clone();
+        copy.and(b);
+        return copy.cardinality();
+    }
+
+    private int allocate(Long id) {
+        int ordinal;
+        if (!freeOrdinals.isEmpty()) {
+            ordinal = freeOrdinals.remove(freeOrdinals.size() - 1);
+            ids.set(ordinal, id);
+        } else {
+            ordinal = ids.size();
+            ids.add(id);
+            if (ordinal >= prices.length) {
+                prices = Arrays.copyOf(prices, prices.length * 2);
+                ratings = Arrays.copyOf(ratings, ratings.length * 2);
+            }
+        }
+        ordinals.put(id, ordinal);
+        return ordinal;
+    }
+
+    private void clearBits(int ordinal) {
+        live.clear(ordinal);
+        disponible.clear(ordinal);
+        inStock.clear(ordinal);
+        for (BitSet bits : categories.values()) {
+            bits.clear(ordinal);
+        }
+        for (BitSet bucket : priceBuckets) {
+            bucket.clear(ordinal);
+        }
+        for (BitSet bucket : ratingBuckets) {
+            bucket.clear(ordinal);
+        }
+    }
+
+    private static int priceBucket(double price) {
+        for (int b = PRICE_BOUNDS.length - 1; b > 0; b--) {
+            if (price >= PRICE_BOUNDS[b]) {
+                return b;
+            }
+        }
+        return 0;
+    }
+
+    private static int ratingBucket(double rating) {
+        return Math.max(0, Math.min(RATING_BUCKETS - 1, (int) Math.floor(rating)));
+    }
+
+    private static String priceLabel(int bucket) {
+        long lo = (long) PRICE_BOUNDS[bucket];
+        return bucket + 1 < PRICE_BOUNDS.length ? lo + "-" + (long) PRICE_BOUNDS[bucket + 1] : lo + "+";
+    }
+
+    private static BitSet[] newBitSets(int count) {
+        BitSet[] sets = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            sets[i] = new BitSet();
+        }
+        return sets;
+    }
+
+    public static class FacetQuery {
+        private Long categoryId;
+        private Double minPrice;
+        private Double maxPrice;
+        private Double minRating;
+        private Boolean inStock;
+        private Boolean disponible;
+
+        public Long getCategoryId() { return categoryId; }
+        public void setCategoryId(Long categoryId) { this.categoryId = categoryId; }
+
+        public Double getMinPrice() { return minPrice; }
+        public void setMinPrice(Double minPrice) { this.minPrice = minPrice; }
+
+        public Double getMaxPrice() { return maxPrice; }
+        public void setMaxPrice(Double maxPrice) { this.maxPrice = maxPrice; }
+
+        public Double getMinRating() { return minRating; }
+        public void setMinRating(Double minRating) { this.minRating = minRating; }
+
+        public Boolean getInStock() { return inStock; }
+        public void setInStock(Boolean inStock) { this.inStock = inStock; }
+
+        public Boolean getDisponible() { return disponible; }
+        public void setDisponible(Boolean disponible) { this.disponible = disponible; }
+    }
+
+    public static class FacetResult {
+        private final int total;
+        private final List<Long> ids;
+        private final Map<String, Map<String, Integer>> facets;
+
+        public FacetResult(int total, List<Long> ids, Map<String, Map<String, Integer>> facets) {
+            this.total = total;
+            this.ids = ids;
+            this.facets = facets;
+        }
+
+        public int getTotal() { return total; }
+
+        public List<Long> getIds() { return ids; }
+
+        public Map<String, Map<String, Integer>> getFacets() { return facets; }
+    }
+}
@@ -0,0 +1,200 @@
+package com.mollysou.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+// In-memory inverted index over a "nom" and a "description" field, ranked with BM25.
+// The name field is boosted so that title matches outrank description matches.
+public class SearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final float NOM_BOOST = 3.0f;
+    private static final float DESCRIPTION_BOOST = 1.0f;
+    private static final double PREFIX_WEIGHT = 0.5;
+    private static final int MAX_PREFIX_EXPANSIONS = 20;
+
+    // term -> (doc id -> weighted term frequency)
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    // doc id -> terms of the doc, used to unindex on update/delete
+    private final Map<Long, Map<String, Float>> documents = new HashMap<>();
+    private final Map<Long, Float> lengths = new HashMap<>();
+    private double totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(long id, String nom, String description) {
+        Map<String, Float> terms = new HashMap<>();
+        float length = 0;
+        for (String term : FrenchAnalyzer.analyze(nom)) {
+            terms.merge(term, NOM_BOOST, Float::sum);
+            length += NOM_BOOST;
+        }
+        for (String term : FrenchAnalyzer.analyze(description)) {
+            terms.merge(term, DESCRIPTION_BOOST, Float::sum);
+            length += DESCRIPTION_BOOST;
+        }
+
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+            documents.put(id, terms);
+            lengths.put(id, length);
+            totalLength += length;
+            for (Map.Entry<String, Float> entry : terms.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(id, entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            lengths.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Returns the best matching ids, highest score first. The last query term is also
+    // matched as a prefix so results show up while the user is still typing.
+    public List<SearchHit> search(String query, LongPredicate filter, int limit) {
+        List<String> terms = FrenchAnalyzer.analyze(query);
+        List<SearchHit> hits = new ArrayList<>();
+        if (terms.isEmpty() || limit <= 0) {
+            return hits;
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            if (docCount == 0) {
+                return hits;
+            }
+            double avgLength = totalLength / docCount;
+            Map<Long, Double> scores = new HashMap<>();
+
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                accumulate(postings.get(term), 1.0, docCount, avgLength, filter, scores);
+
+                if (i == terms.size() - 1) {
+                    NavigableMap<String, Map<Long, Float>> expansions =
+                            postings.subMap(term, false, term + Character.MAX_VALUE, false);
+                    int expanded = 0;
+                    for (Map<Long, Float> posting : expansions.values()) {
+                        if (expanded++ >= MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                        accumulate(posting, PREFIX_WEIGHT, docCount, avgLength, filter, scores);
+                    }
+                }
+            }
+
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(limit + 1);
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                top.offer(new SearchHit(entry.getKey(), entry.getValue()));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            while (!top.isEmpty()) {
+                hits.add(top.poll());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    private void accumulate(Map<Long, Float> posting, double weight, int docCount, double avgLength,
+                            LongPredicate filter, Map<Long, Double> scores) {
+        if (posting == null || posting.isEmpty()) {
+            return;
+        }
+        int df = posting.size();
+        double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+
+        for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+            long id = entry.getKey();
+            if (filter != null && !filter.test(id)) {
+                continue;
+            }
+            float tf = entry.getValue();
+            double norm = K1 * (1 - B + B * lengths.get(id) / avgLength);
+            double score = weight * idf * (tf * (K1 + 1)) / (tf + norm);
+            scores.merge(id, score, Double::sum);
+        }
+    }
+
+    private void unindex(long id) {
+        Map<String, Float> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        totalLength -= lengths.remove(id);
+        for (String term : terms.keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    public static class SearchHit implements Comparable<SearchHit> {
+        private final long id;
+        private final double score;
+
+        public SearchHit(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        public long getId() { return id; }
+
+        public double getScore() { return score; }
+
+        @Override
+        public int compareTo(SearchHit other) {
+            int cmp = Double.compare(score, other.score);
+            // Lower id wins ties so the ranking is deterministic
+            return cmp != 0 ? cmp : Long.compare(other.id, id);
+        }
+    }
+}
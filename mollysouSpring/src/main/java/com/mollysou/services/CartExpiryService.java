@@ -0,0 +1,129 @@
+package com.mollysou.services;
+
+import com.mollysou.cart.CartStore;
+import com.mollysou.dto.CartExpiryMetricsDTO;
+import com.mollysou.stock.StockReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Expires abandoned cart lines. Lines of loaded carts are removed from memory by
+// CartStore's timing wheel, giving back their stock holds, and deleted by its flush. Rows of
+// carts that are not loaded are deleted in small auto-committed batches, each found by a
+// keyset read on idx_cart_added_at that skips loaded carts, so no statement scans the table
+// or holds its locks for long. The next database sweep is scheduled from the oldest addedAt,
+// which the index reads directly.
+@Service
+public class CartExpiryService {
+
+    @Value("${mollysou.cart.expiry-batch-size:500}")
+    private int batchSize;
+
+    @Value("${mollysou.cart.expiry-max-batches:20}")
+    private int maxBatchesPerRun;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private StockReservationService stockReservations;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 0 until the first run, which looks at the table
+    private volatile long nextSweepAt;
+
+    private final AtomicLong expiredLines = new AtomicLong();
+    private final AtomicLong deletedRows = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong totalBatchNanos = new AtomicLong();
+    private final AtomicLong maxBatchNanos = new AtomicLong();
+    private volatile long lastBatchNanos;
+
+    @Scheduled(fixedDelayString = "${mollysou.cart.expiry-tick-ms:1000}")
+    public void expire() {
+        long now = System.currentTimeMillis();
+        int expired = cartStore.expireLines(now,
+                (userId, line) -> stockReservations.release(userId, line.getProductId()));
+        expiredLines.addAndGet(expired);
+
+        if (now >= nextSweepAt) {
+            sweepDatabase(now);
+        }
+    }
+
+    private void sweepDatabase(long now) {
+        long ttl = cartStore.getLineTtlMs();
+        Timestamp cutoff = new Timestamp(now - ttl);
+        // Position after the last row read, so rows of loaded carts are not read again
+        Timestamp lastAddedAt = new Timestamp(0);
+        long lastId = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            long start = System.nanoTime();
+            List<Object[]> rows = jdbcTemplate.query("SELECT id, user_id, added_at FROM cart WHERE added_at < ? "
+                            + "AND (added_at > ? OR (added_at = ? AND id > ?)) ORDER BY added_at, id LIMIT ?",
+                    (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2), rs.getTimestamp(3)},
+                    cutoff, lastAddedAt, lastAddedAt, lastId, batchSize);
+            List<Object> ids = new ArrayList<>();
+            for (Object[] row : rows) {
+                if (!cartStore.isLoaded((Long) row[1])) {
+                    ids.add(row[0]);
+                }
+            }
+            int deleted = 0;
+            if (!ids.isEmpty()) {
+                // added_at is checked again: the line may have been added anew since the read
+                ids.add(cutoff);
+                deleted = jdbcTemplate.update("DELETE FROM cart WHERE id IN ("
+                        + String.join(", ", Collections.nCopies(ids.size() - 1, "?")) + ") AND added_at < ?",
+                        ids.toArray());
+            }
+            recordBatch(System.nanoTime() - start, deleted);
+            if (rows.size() < batchSize) {
+                break;
+            }
+            Object[] last = rows.get(rows.size() - 1);
+            lastId = (Long) last[0];
+            lastAddedAt = (Timestamp) last[2];
+            if (batch == maxBatchesPerRun - 1) {
+                // More to delete: carry on at the next tick rather than in one long run
+                return;
+            }
+        }
+
+        // Rows added from now on expire at now + ttl at the earliest
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(added_at) FROM cart", Timestamp.class);
+        nextSweepAt = oldest != null ? Math.min(oldest.getTime() + ttl, now + ttl) : now + ttl;
+    }
+
+    private void recordBatch(long nanos, int deleted) {
+        batches.incrementAndGet();
+        deletedRows.addAndGet(deleted);
+        totalBatchNanos.addAndGet(nanos);
+        maxBatchNanos.accumulateAndGet(nanos, Math::max);
+        lastBatchNanos = nanos;
+    }
+
+    public CartExpiryMetricsDTO getMetrics() {
+        CartExpiryMetricsDTO metrics = new CartExpiryMetricsDTO();
+        long batchCount = batches.get();
+        metrics.setExpiredLines(expiredLines.get());
+        metrics.setDeletedRows(deletedRows.get());
+        metrics.setBatches(batchCount);
+        metrics.setLastBatchMillis(lastBatchNanos / 1e6);
+        metrics.setMaxBatchMillis(maxBatchNanos.get() / 1e6);
+        metrics.setAverageBatchMillis(batchCount > 0 ? totalBatchNanos.get() / 1e6 / batchCount : 0);
+        metrics.setTrackedLines(cartStore.getTrackedLineCount());
+        metrics.setNextSweepAt(nextSweepAt);
+        return metrics;
+    }
+}
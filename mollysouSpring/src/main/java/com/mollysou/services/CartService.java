@@ -1,143 +1,278 @@
 package com.mollysou.services;
 
+import com.mollysou.cart.CartLine;
+import com.mollysou.cart.CartStore;
+import com.mollysou.cart.UserCart;
+import com.mollysou.catalog.CatalogSnapshot;
+import com.mollysou.catalog.CatalogSnapshotStore;
 import com.mollysou.dto.CartDTO;
 import com.mollysou.dto.AddToCartDTO;
-import com.mollysou.entities.Cart;
-import com.mollysou.entities.User;
-import com.mollysou.entities.Product;
-import com.mollysou.repositories.CartRepository;
-import com.mollysou.repositories.UserRepository;
+import com.mollysou.dto.CartOperationDTO;
+import com.mollysou.dto.ProductDTO;
 import com.mollysou.repositories.ProductRepository;
+import com.mollysou.stock.StockReservationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+// Carts live in CartStore; the database is only read when a cart is first loaded and
+// written in batches behind the requests
 @Service
 public class CartService {
 
-    @Autowired
-    private CartRepository cartRepository;
+    private static final Logger log = LoggerFactory.getLogger(CartService.class);
+
+    private static final int MAX_OPERATIONS = 200;
 
     @Autowired
-    private UserRepository userRepository;
+    private CartStore cartStore;
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CatalogSnapshotStore snapshotStore;
+
+    @Autowired
+    private StockReservationService stockReservations;
+
     public List<CartDTO> getUserCart(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        List<CartLine> lines = cartStore.read(userId, cart -> new ArrayList<>(cart.getLines()));
 
-        return cartRepository.findByUser(user).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        Map<Long, ProductDTO> products = findProducts(lines.stream()
+                .map(CartLine::getProductId)
+                .collect(Collectors.toList()));
+
+        List<CartDTO> items = new ArrayList<>();
+        for (CartLine line : lines) {
+            ProductDTO product = products.get(line.getProductId());
+            // Lines of deleted products are not shown
+            if (product != null) {
+                items.add(convertToDTO(userId, line, product));
+            }
+        }
+        return items;
     }
 
-    @Transactional
     public CartDTO addToCart(Long userId, AddToCartDTO addToCartDTO) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Product product = productRepository.findById(addToCartDTO.getProductId())
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        ProductDTO product = findProduct(addToCartDTO.getProductId());
+        if (product == null) {
+            throw new RuntimeException("Product not found");
+        }
 
         // Check if product is available
-        if (!product.getDisponible() || product.getStock() <= 0) {
+        if (!Boolean.TRUE.equals(product.getDisponible()) || product.getStock() <= 0) {
             throw new RuntimeException("Product not available");
         }
 
-        // Check if product already in cart
-        Optional<Cart> existingCartItem = cartRepository.findByUserAndProductId(user, product.getId());
-
-        if (existingCartItem.isPresent()) {
-            // Update quantity
-            Cart cartItem = existingCartItem.get();
-            int newQuantity = cartItem.getQuantity() + addToCartDTO.getQuantity();
+        return cartStore.update(userId, cart -> {
+            int newQuantity = cart.getQuantity(product.getId()) + addToCartDTO.getQuantity();
 
             // Check stock availability
-            if (newQuantity > product.getStock()) {
+            if (newQuantity > product.getStock()
+                    || !stockReservations.hold(userId, product.getId(), newQuantity)) {
                 throw new RuntimeException("Not enough stock available");
             }
 
-            cartItem.setQuantity(newQuantity);
-            Cart savedCart = cartRepository.save(cartItem);
-            return convertToDTO(savedCart);
-        } else {
-            // Add new item to cart
-            Cart cartItem = new Cart();
-            cartItem.setUser(user);
-            cartItem.setProduct(product);
-            cartItem.setQuantity(addToCartDTO.getQuantity());
-
-            Cart savedCart = cartRepository.save(cartItem);
-            return convertToDTO(savedCart);
-        }
+            cart.setQuantity(product.getId(), newQuantity);
+            return convertToDTO(userId, cart.getLine(product.getId()), product);
+        });
     }
 
-    @Transactional
     public void updateCartItemQuantity(Long userId, Long productId, Integer quantity) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Cart cartItem = cartRepository.findByUserAndProductId(user, productId)
-                .orElseThrow(() -> new RuntimeException("Cart item not found"));
-
-        Product product = cartItem.getProduct();
-
-        // Check stock availability
-        if (quantity > product.getStock()) {
-            throw new RuntimeException("Not enough stock available");
+        boolean inCart = cartStore.read(userId, cart -> cart.getLine(productId) != null);
+        if (!inCart) {
+            throw new RuntimeException("Cart item not found");
         }
 
-        if (quantity <= 0) {
-            cartRepository.delete(cartItem);
-        } else {
-            cartItem.setQuantity(quantity);
-            cartRepository.save(cartItem);
+        ProductDTO product = findProduct(productId);
+        if (product == null) {
+            throw new RuntimeException("Product not found");
         }
+
+        cartStore.update(userId, cart -> {
+            if (cart.getLine(productId) == null) {
+                throw new RuntimeException("Cart item not found");
+            }
+            // Check stock availability; lowering a quantity is always allowed
+            if (quantity > cart.getQuantity(productId) && quantity > product.getStock()) {
+                throw new RuntimeException("Not enough stock available");
+            }
+            // A line whose hold was lost may still be lowered; it stays unreserved
+            if (!stockReservations.hold(userId, productId, Math.max(quantity, 0))
+                    && quantity > cart.getQuantity(productId)) {
+                throw new RuntimeException("Not enough stock available");
+            }
+            cart.setQuantity(productId, quantity);
+            return null;
+        });
     }
 
-    @Transactional
     public void removeFromCart(Long userId, Long productId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        cartRepository.deleteByUserAndProductId(user, productId);
+        cartStore.update(userId, cart -> {
+            stockReservations.release(userId, productId);
+            cart.setQuantity(productId, 0);
+            return null;
+        });
     }
 
-    @Transactional
     public void clearCart(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        cartStore.update(userId, cart -> {
+            stockReservations.releaseAll(userId, cart.getLines().stream()
+                    .map(CartLine::getProductId)
+                    .collect(Collectors.toList()));
+            cart.clear();
+            return null;
+        });
+    }
 
-        cartRepository.deleteByUser(user);
+    // Applies a list of add/set/remove operations as one change: either all of them apply
+    // or none does. Products are resolved with one query and the result is written to the
+    // database in one batch before returning the resulting cart.
+    public List<CartDTO> applyOperations(Long userId, List<CartOperationDTO> operations) {
+        if (operations == null || operations.isEmpty()) {
+            return getUserCart(userId);
+        }
+        if (operations.size() > MAX_OPERATIONS) {
+            throw new IllegalArgumentException("At most " + MAX_OPERATIONS + " operations per request");
+        }
+
+        Set<Long> productIds = new LinkedHashSet<>();
+        cartStore.read(userId, cart -> {
+            cart.getLines().forEach(line -> productIds.add(line.getProductId()));
+            return null;
+        });
+        for (CartOperationDTO operation : operations) {
+            if (operation.getProductId() == null) {
+                throw new IllegalArgumentException("productId is required");
+            }
+            productIds.add(operation.getProductId());
+        }
+        Map<Long, ProductDTO> products = findProducts(productIds);
+        // The stock of products not held yet is read in one query too, not one per hold
+        stockReservations.load(productIds);
+
+        List<CartLine> lines = cartStore.update(userId, cart -> {
+            // Work out the final quantity of every touched product before changing anything
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            for (CartOperationDTO operation : operations) {
+                Long productId = operation.getProductId();
+                int current = quantities.getOrDefault(productId, cart.getQuantity(productId));
+                int amount = operation.getQuantity() != null ? operation.getQuantity() : 0;
+                String op = operation.getOp() != null ? operation.getOp().toLowerCase() : "";
+                switch (op) {
+                    case "add" -> quantities.put(productId, current + amount);
+                    case "set" -> quantities.put(productId, Math.max(amount, 0));
+                    case "remove" -> quantities.put(productId, 0);
+                    default -> throw new IllegalArgumentException("Unknown operation: " + operation.getOp());
+                }
+            }
+
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                int quantity = entry.getValue();
+                // Only increases are checked: lowering a quantity is always allowed
+                if (quantity <= cart.getQuantity(entry.getKey())) {
+                    continue;
+                }
+                ProductDTO product = products.get(entry.getKey());
+                if (product == null) {
+                    throw new RuntimeException("Product not found");
+                }
+                if (!Boolean.TRUE.equals(product.getDisponible()) || quantity > product.getStock()) {
+                    throw new RuntimeException("Not enough stock available");
+                }
+            }
+
+            holdAll(userId, cart, quantities);
+            quantities.forEach(cart::setQuantity);
+            return new ArrayList<>(cart.getLines());
+        });
+
+        // Written now rather than by the periodic flush; if that fails the changes are
+        // still journaled and the next flush retries them
+        cartStore.flush(userId);
+
+        List<CartDTO> items = new ArrayList<>();
+        for (CartLine line : lines) {
+            ProductDTO product = products.get(line.getProductId());
+            if (product != null) {
+                items.add(convertToDTO(userId, line, product));
+            }
+        }
+        return items;
+    }
+
+    // Moves the stock holds to the new quantities, restoring the old ones if any fails. A line
+    // whose hold was lost may still be lowered without one.
+    private void holdAll(Long userId, UserCart cart, Map<Long, Integer> quantities) {
+        Map<Long, Integer> previous = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            int held = stockReservations.getHeldQuantity(userId, entry.getKey());
+            if (!stockReservations.hold(userId, entry.getKey(), entry.getValue())) {
+                if (entry.getValue() <= cart.getQuantity(entry.getKey())) {
+                    continue;
+                }
+                previous.forEach((productId, quantity) -> {
+                    // Only possible if the stock dropped meanwhile; the cart keeps its old lines anyway
+                    if (!stockReservations.hold(userId, productId, quantity)) {
+                        log.warn("Could not restore the hold of {} on product {} for user {}",
+                                quantity, productId, userId);
+                    }
+                });
+                throw new RuntimeException("Not enough stock available");
+            }
+            previous.put(entry.getKey(), held);
+        }
     }
 
     public int getCartItemCount(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return cartStore.read(userId, cart -> cart.size());
+    }
 
-        return cartRepository.countByUser(user);
+    private ProductDTO findProduct(Long productId) {
+        CatalogSnapshot snapshot = snapshotStore.freshCatalog();
+        if (snapshot != null) {
+            return snapshot.findProduct(productId);
+        }
+        return productRepository.findDtoById(productId).orElse(null);
     }
 
-    private CartDTO convertToDTO(Cart cart) {
-        CartDTO dto = new CartDTO();
-        dto.setId(cart.getId());
-        dto.setProductId(cart.getProduct().getId());
-        dto.setProductName(cart.getProduct().getNom());
-        dto.setProductImage(cart.getProduct().getImage());
-        dto.setPrice(cart.getProduct().getPrix());
-        dto.setQuantity(cart.getQuantity());
-        dto.setStock(cart.getProduct().getStock());
-
-        if (cart.getProduct().getCategory() != null) {
-            dto.setCategory(cart.getProduct().getCategory().getNom());
+    // Resolves the products of a cart with the snapshot, or a single IN query
+    private Map<Long, ProductDTO> findProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
         }
+        CatalogSnapshot snapshot = snapshotStore.freshCatalog();
+        if (snapshot != null) {
+            Map<Long, ProductDTO> products = new HashMap<>();
+            for (Long productId : productIds) {
+                ProductDTO product = snapshot.findProduct(productId);
+                if (product != null) {
+                    products.put(productId, product);
+                }
+            }
+            return products;
+        }
+        return productRepository.findDtoByIdIn(productIds).stream()
+                .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+    }
 
+    private CartDTO convertToDTO(Long userId, CartLine line, ProductDTO product) {
+        CartDTO dto = new CartDTO(line.getId(), product.getId(), product.getNom(), product.getImage(), product.getPrix(),
+                line.getQuantity(), product.getStock(), product.getCategoryNom());
+        dto.setReserved(stockReservations.getHeldQuantity(userId, product.getId()) >= line.getQuantity());
         return dto;
     }
-}
\ No newline at end of file
+}
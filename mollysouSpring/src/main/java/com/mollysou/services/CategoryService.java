@@ -1,5 +1,8 @@
 package com.mollysou.services;
 
+import com.mollysou.catalog.CatalogSnapshot;
+import com.mollysou.catalog.CatalogSnapshotStore;
+import com.mollysou.catalog.CategoryProductCounters;
 import com.mollysou.dto.CategoryDTO;
 import com.mollysou.entities.Category;
 import com.mollysou.repositories.CategoryRepository;
@@ -15,18 +18,39 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryProductCounters productCounters;
+
+    @Autowired
+    private CatalogSnapshotStore snapshotStore;
+
     public List<CategoryDTO> getAllCategories() {
+        ensureCounters();
+        CatalogSnapshot snapshot = snapshotStore.freshCatalog();
+        if (snapshot != null) {
+            List<CategoryDTO> categories = snapshot.allCategories();
+            categories.forEach(this::applyCounts);
+            return categories;
+        }
         return categoryRepository.findAll().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     public CategoryDTO getCategoryById(Long id) {
+        ensureCounters();
         return categoryRepository.findById(id)
                 .map(this::convertToDTO)
                 .orElse(null);
     }
 
+    // Counters are seeded at startup; before that, fall back to the grouped count query
+    private void ensureCounters() {
+        if (!productCounters.isInitialized()) {
+            productCounters.refresh();
+        }
+    }
+
     private CategoryDTO convertToDTO(Category category) {
         CategoryDTO dto = new CategoryDTO();
         dto.setId(category.getId());
@@ -34,7 +58,12 @@ public class CategoryService {
         dto.setIcon(category.getIcon());
         dto.setColor(category.getColor());
         dto.setDescription(category.getDescription());
-        dto.setNombreProduits(category.getProduits() != null ? category.getProduits().size() : 0);
+        applyCounts(dto);
         return dto;
     }
-}
\ No newline at end of file
+
+    private void applyCounts(CategoryDTO dto) {
+        dto.setNombreProduits(productCounters.getTotal(dto.getId()));
+        dto.setNombreProduitsDisponibles(productCounters.getAvailable(dto.getId()));
+    }
+}
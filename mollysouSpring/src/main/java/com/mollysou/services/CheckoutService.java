@@ -0,0 +1,215 @@
+package com.mollysou.services;
+
+import com.mollysou.cart.CartLine;
+import com.mollysou.cart.CartStore;
+import com.mollysou.catalog.CatalogChangeEvent;
+import com.mollysou.dto.OrderDTO;
+import com.mollysou.dto.OrderItemDTO;
+import com.mollysou.dto.ProductDTO;
+import com.mollysou.entities.Order;
+import com.mollysou.entities.Product;
+import com.mollysou.ledger.PointsLedger;
+import com.mollysou.repositories.OrderItemRepository;
+import com.mollysou.repositories.OrderRepository;
+import com.mollysou.repositories.ProductRepository;
+import com.mollysou.repositories.UserRepository;
+import com.mollysou.stock.StockReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Turns a user's cart into an order. Everything the checkout writes (order, items, stock,
+// cart rows, redeemed and earned points) commits in one transaction; the in-memory cart and the stock holds are
+// only updated once it has committed.
+@Service
+public class CheckoutService {
+
+    // Same rewards the app grants for a purchase: 50 points plus 1 point and 2 XP per DT
+    private static final int BASE_PURCHASE_POINTS = 50;
+    private static final int XP_PER_UNIT = 2;
+    // Redeemed points pay for the order at 100 points per DT
+    private static final int POINTS_PER_UNIT = 100;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PointsLedger pointsLedger;
+
+    @Autowired
+    private StockReservationService stockReservations;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public OrderDTO checkout(Long userId, String key) {
+        return checkout(userId, key, 0);
+    }
+
+    // redeemPoints is capped at the order total; a retried checkout never debits twice
+    public OrderDTO checkout(Long userId, String key, int redeemPoints) {
+        if (redeemPoints < 0) {
+            throw new IllegalArgumentException("redeemPoints must not be negative");
+        }
+        String idempotencyKey = key != null && !key.isBlank() ? key.trim() : null;
+        if (idempotencyKey != null && idempotencyKey.length() > 64) {
+            throw new IllegalArgumentException("Idempotency key is too long");
+        }
+        try {
+            // Holding the cart's lock serializes checkouts of the same user and keeps the
+            // cart from changing while it is being ordered
+            return cartStore.update(userId, cart -> {
+                Optional<OrderDTO> previous = findByIdempotencyKey(userId, idempotencyKey);
+                if (previous.isPresent()) {
+                    return previous.get();
+                }
+
+                List<CartLine> lines = new ArrayList<>(cart.getLines());
+                if (lines.isEmpty()) {
+                    throw new RuntimeException("Cart is empty");
+                }
+
+                OrderDTO order = new TransactionTemplate(transactionManager)
+                        .execute(status -> placeOrder(userId, idempotencyKey, lines, redeemPoints));
+
+                for (CartLine line : lines) {
+                    stockReservations.consume(userId, line.getProductId());
+                }
+                cart.clear();
+                return order;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // The same key was committed concurrently, e.g. through another instance
+            return findByIdempotencyKey(userId, idempotencyKey).orElseThrow(() -> e);
+        }
+    }
+
+    private OrderDTO placeOrder(Long userId, String idempotencyKey, List<CartLine> lines, int redeemPoints) {
+        // Current prices, read from the database rather than the catalog snapshot
+        Map<Long, ProductDTO> products = productRepository.findDtoByIdIn(lines.stream()
+                        .map(CartLine::getProductId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+
+        BigDecimal total = BigDecimal.ZERO;
+        int itemCount = 0;
+        List<OrderItemDTO> items = new ArrayList<>();
+        for (CartLine line : lines) {
+            ProductDTO product = products.get(line.getProductId());
+            if (product == null || !Boolean.TRUE.equals(product.getDisponible())) {
+                throw new RuntimeException("Product not available");
+            }
+            BigDecimal price = product.getPrix() != null ? product.getPrix() : BigDecimal.ZERO;
+            total = total.add(price.multiply(BigDecimal.valueOf(line.getQuantity())));
+            itemCount += line.getQuantity();
+            items.add(new OrderItemDTO(product.getId(), product.getNom(), product.getImage(),
+                    line.getQuantity(), price));
+        }
+
+        int redeemed = total.multiply(BigDecimal.valueOf(POINTS_PER_UNIT)).min(BigDecimal.valueOf(redeemPoints)).intValue();
+        total = total.subtract(BigDecimal.valueOf(redeemed).divide(BigDecimal.valueOf(POINTS_PER_UNIT)));
+
+        Order order = new Order();
+        order.setUser(userRepository.getReferenceById(userId));
+        order.setTotalAmount(total);
+        order.setPointsRedeemed(redeemed);
+        order.setItemCount(itemCount);
+        order.setStatus("COMPLETED");
+        order.setIdempotencyKey(idempotencyKey);
+        // Inserted first so that a duplicate key fails before anything else is written
+        orderRepository.saveAndFlush(order);
+        if (redeemed > 0) {
+            pointsLedger.debit(userId, redeemed, "REDEMPTION", "redeem:" + order.getId());
+        }
+
+        // One batched conditional decrement; a line that matches no row is out of stock
+        List<Object[]> decrements = new ArrayList<>();
+        List<Object[]> orderItems = new ArrayList<>();
+        for (OrderItemDTO item : items) {
+            decrements.add(new Object[]{item.getQuantity(), item.getProductId(), item.getQuantity()});
+            orderItems.add(new Object[]{order.getId(), item.getProductId(), item.getQuantity(), item.getPrice()});
+        }
+        int[] decremented = jdbcTemplate.batchUpdate(
+                "UPDATE products SET stock = stock - ? WHERE id = ? AND stock >= ?", decrements);
+        for (int count : decremented) {
+            if (count == 0) {
+                throw new RuntimeException("Not enough stock available");
+            }
+        }
+        // The decrement bypasses JPA, so no entity listener reports it: the products are read
+        // back with their new stock and announced here. The listeners run once the order commits.
+        for (Product product : productRepository.findAllById(products.keySet())) {
+            publisher.publishEvent(new CatalogChangeEvent(product, CatalogChangeEvent.Kind.UPDATED,
+                    product.getLoadedCategoryId(), product.getLoadedDisponible()));
+        }
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO order_items (order_id, product_id, quantity, price) VALUES (?, ?, ?, ?)", orderItems);
+        jdbcTemplate.update("DELETE FROM cart WHERE user_id = ?", userId);
+        jdbcTemplate.update("INSERT INTO user_order_summaries (user_id, order_count, item_count, total_spent, last_order_date) "
+                        + "VALUES (?, 1, ?, ?, ?) AS new ON DUPLICATE KEY UPDATE order_count = order_count + 1, "
+                        + "item_count = item_count + new.item_count, total_spent = total_spent + new.total_spent, "
+                        + "last_order_date = new.last_order_date",
+                userId, itemCount, total, order.getOrderDate());
+
+        int points = BASE_PURCHASE_POINTS + total.intValue();
+        int xp = total.multiply(BigDecimal.valueOf(XP_PER_UNIT)).intValue();
+        pointsLedger.appendNow(userId, points, xp, "PURCHASE", "purchase:" + order.getId());
+
+        OrderDTO dto = convertToDTO(order, items);
+        dto.setPointsEarned(points);
+        dto.setXpEarned(xp);
+        return dto;
+    }
+
+    private Optional<OrderDTO> findByIdempotencyKey(Long userId, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return Optional.empty();
+        }
+        return orderRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                .map(order -> convertToDTO(order, orderItemRepository.findDtoByOrderId(order.getId())));
+    }
+
+    private OrderDTO convertToDTO(Order order, List<OrderItemDTO> items) {
+        OrderDTO dto = new OrderDTO();
+        dto.setId(order.getId());
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setOrderDate(order.getOrderDate());
+        dto.setStatus(order.getStatus());
+        dto.setItemCount(order.getItemCount());
+        dto.setPointsRedeemed(order.getPointsRedeemed());
+        dto.setItems(items);
+        return dto;
+    }
+}
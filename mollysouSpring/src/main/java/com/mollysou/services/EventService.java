@@ -1,21 +1,38 @@
 package com.mollysou.services;
 
+import com.mollysou.catalog.CatalogSnapshot;
+import com.mollysou.catalog.CatalogSnapshotStore;
+import com.mollysou.dto.BatchResultDTO;
 import com.mollysou.dto.EventDTO;
 import com.mollysou.entities.Event;
 import com.mollysou.repositories.EventRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class EventService {
 
+    private static final int MAX_BATCH_SIZE = 100;
+
     @Autowired
     private EventRepository eventRepository;
 
+    @Autowired
+    private CatalogSnapshotStore snapshotStore;
+
     public List<EventDTO> getAllEvents() {
+        CatalogSnapshot snapshot = snapshotStore.freshEvents();
+        if (snapshot != null) {
+            return snapshot.events(Integer.MAX_VALUE);
+        }
         return eventRepository.findByOrderByDateAsc().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
@@ -23,6 +40,10 @@ public class EventService {
 
     public List<EventDTO> getPopularEvents() {
         // Return events with highest ratings or most recent
+        CatalogSnapshot snapshot = snapshotStore.freshEvents();
+        if (snapshot != null) {
+            return snapshot.events(4);
+        }
         return eventRepository.findByOrderByDateAsc().stream()
                 .limit(4) // Top 4 events
                 .map(this::convertToDTO)
@@ -35,6 +56,29 @@ public class EventService {
                 .orElse(null);
     }
 
+    public BatchResultDTO<EventDTO> getEventsByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " ids per request");
+        }
+
+        // findAllById resolves all ids with a single IN query
+        Map<Long, Event> found = eventRepository.findAllById(requested).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+
+        List<EventDTO> items = new ArrayList<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Event event = found.get(id);
+            if (event != null) {
+                items.add(convertToDTO(event));
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BatchResultDTO<>(items, missingIds);
+    }
+
     private EventDTO convertToDTO(Event event) {
         EventDTO dto = new EventDTO();
         dto.setId(event.getId());
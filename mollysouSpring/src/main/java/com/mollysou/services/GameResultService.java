@@ -0,0 +1,211 @@
+package com.mollysou.services;
+
+import com.mollysou.cooldown.CooldownStore;
+import com.mollysou.cooldown.GameType;
+import com.mollysou.dto.GameResultDTO;
+import com.mollysou.dto.GameResultStatusDTO;
+import com.mollysou.games.BloomFilter;
+import com.mollysou.ledger.PointsLedger;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Results of mini-games, reported by the app with an id it generated. Each result is applied
+// once: its points and XP become a ledger entry with the reference game:<id>, which the
+// ledger's unique key (user_id, reference) records at most once, and the game's cooldown is
+// stamped only when that entry was inserted. All the results of a request are queued
+// together, so they share the ledger's next batch.
+// Applied ids are remembered in a Bloom filter. A retry is found there and confirmed with
+// one indexed read, and then answered without a write. An id the filter does not know has
+// not been applied recently, and if it was applied earlier the ledger still refuses it.
+@Service
+public class GameResultService {
+
+    private static final Logger log = LoggerFactory.getLogger(GameResultService.class);
+
+    private static final String REFERENCE_PREFIX = "game:";
+    private static final int MAX_ID_LENGTH = 64;
+
+    @Value("${mollysou.games.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${mollysou.games.bloom-capacity:1000000}")
+    private int bloomCapacity;
+
+    @Value("${mollysou.games.bloom-false-positive-rate:0.01}")
+    private double bloomFalsePositiveRate;
+
+    // Latest ledger entries whose game ids are loaded into the filter at startup
+    @Value("${mollysou.games.bloom-warmup:100000}")
+    private int bloomWarmup;
+
+    @Autowired
+    private PointsLedger pointsLedger;
+
+    @Autowired
+    private CooldownStore cooldownStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Two generations: once the current one is full it becomes the previous one, so the
+    // filter always knows at least the last bloomCapacity ids
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+
+    @PostConstruct
+    public void load() {
+        current = new BloomFilter(bloomCapacity, bloomFalsePositiveRate);
+        previous = new BloomFilter(bloomCapacity, bloomFalsePositiveRate);
+        int[] loaded = {0};
+        jdbcTemplate.query("SELECT user_id, reference FROM points_ledger ORDER BY id DESC LIMIT ?", rs -> {
+            String reference = rs.getString(2);
+            if (reference != null && reference.startsWith(REFERENCE_PREFIX)) {
+                remember(key(rs.getLong(1), reference));
+                loaded[0]++;
+            }
+        }, bloomWarmup);
+        log.info("Loaded {} recent game results into the dedupe filter", loaded[0]);
+    }
+
+    public List<GameResultStatusDTO> submit(List<GameResultDTO> results) {
+        if (results == null || results.isEmpty() || results.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Between 1 and " + maxBatchSize + " results are accepted");
+        }
+
+        String[] statuses = new String[results.size()];
+        GameType[] games = new GameType[results.size()];
+        Set<String> seen = new HashSet<>();
+        List<Integer> suspected = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            GameResultDTO result = results.get(i);
+            games[i] = validate(result);
+            if (games[i] == null) {
+                statuses[i] = "REJECTED";
+            } else if (!seen.add(key(result.getUserId(), reference(result)))) {
+                statuses[i] = "DUPLICATE";
+            } else if (mightBeApplied(key(result.getUserId(), reference(result)))) {
+                suspected.add(i);
+            }
+        }
+        for (Integer i : findApplied(results, suspected)) {
+            statuses[i] = "DUPLICATE";
+        }
+
+        List<CompletableFuture<Boolean>> inserted = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            GameResultDTO result = results.get(i);
+            inserted.add(statuses[i] != null ? null : pointsLedger.append(result.getUserId(),
+                    valueOf(result.getPoints()), valueOf(result.getXp()), "GAME", reference(result)));
+        }
+        // One bound for the whole batch; a result that failed on its own is rejected below
+        pointsLedger.await(CompletableFuture.allOf(inserted.stream()
+                .filter(Objects::nonNull)
+                .map(future -> future.handle((applied, failure) -> applied))
+                .toArray(CompletableFuture<?>[]::new)));
+
+        List<GameResultStatusDTO> response = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            GameResultDTO result = results.get(i);
+            if (statuses[i] == null) {
+                statuses[i] = apply(result, games[i], inserted.get(i));
+            }
+            response.add(new GameResultStatusDTO(result.getId(), statuses[i]));
+        }
+        return response;
+    }
+
+    private String apply(GameResultDTO result, GameType game, CompletableFuture<Boolean> inserted) {
+        try {
+            boolean applied = inserted.join();
+            remember(key(result.getUserId(), reference(result)));
+            if (!applied) {
+                return "DUPLICATE";
+            }
+            cooldownStore.stamp(result.getUserId(), game);
+            return "APPLIED";
+        } catch (CompletionException e) {
+            // e.g. an unknown user
+            return "REJECTED";
+        }
+    }
+
+    // The game of a well-formed result, otherwise null
+    private GameType validate(GameResultDTO result) {
+        if (result == null || result.getId() == null || result.getId().isBlank()
+                || result.getId().length() > MAX_ID_LENGTH || result.getUserId() == null
+                || valueOf(result.getPoints()) < 0 || valueOf(result.getXp()) < 0) {
+            return null;
+        }
+        try {
+            return GameType.fromKey(result.getGameType());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Which of the given results already have a ledger entry, in one read of the unique key
+    private List<Integer> findApplied(List<GameResultDTO> results, List<Integer> candidates) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder("SELECT user_id, reference FROM points_ledger WHERE (user_id, reference) IN (");
+        List<Object> args = new ArrayList<>();
+        for (Integer i : candidates) {
+            sql.append(args.isEmpty() ? "(?, ?)" : ", (?, ?)");
+            args.add(results.get(i).getUserId());
+            args.add(reference(results.get(i)));
+        }
+        Set<String> applied = new HashSet<>();
+        jdbcTemplate.query(sql.append(")").toString(),
+                rs -> { applied.add(key(rs.getLong(1), rs.getString(2))); }, args.toArray());
+
+        List<Integer> found = new ArrayList<>();
+        for (Integer i : candidates) {
+            if (applied.contains(key(results.get(i).getUserId(), reference(results.get(i))))) {
+                found.add(i);
+            }
+        }
+        return found;
+    }
+
+    private boolean mightBeApplied(String key) {
+        return current.mightContain(key) || previous.mightContain(key);
+    }
+
+    private void remember(String key) {
+        if (current.isFull()) {
+            synchronized (this) {
+                if (current.isFull()) {
+                    previous = current;
+                    current = new BloomFilter(bloomCapacity, bloomFalsePositiveRate);
+                }
+            }
+        }
+        current.add(key);
+    }
+
+    private static String reference(GameResultDTO result) {
+        return REFERENCE_PREFIX + result.getId().trim();
+    }
+
+    private static String key(long userId, String reference) {
+        return userId + ":" + reference;
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,202 @@
+package com.mollysou.services;
+
+import com.mollysou.dto.LeaderboardEntryDTO;
+import com.mollysou.entities.User;
+import com.mollysou.leaderboard.LeaderboardWindow;
+import com.mollysou.leaderboard.RankedSkipList;
+import com.mollysou.leaderboard.RollingLeaderboards;
+import com.mollysou.ledger.PointsChangedEvent;
+import com.mollysou.progression.LevelProgression;
+import com.mollysou.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Global leaderboard by total XP, i.e. by level and then XP within the level. Positions are
+// kept in an in-memory ranked skip list, loaded from users at startup and moved by every
+// committed ledger change, so top, rank and neighbour queries never touch the users table
+// except to fetch the names of the few users returned.
+// The daily and weekly boards rank users by the points they earned over the last 24 hours
+// and 7 days; they are rebuilt from the ledger at startup and rolled hour by hour.
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final int MAX_TOP = 100;
+    private static final int MAX_NEIGHBOURS = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final RankedSkipList board = new RankedSkipList();
+    private RollingLeaderboards windows;
+
+    @PostConstruct
+    public void rebuild() {
+        long start = System.nanoTime();
+        // Streamed row by row (MySQL only streams with this fetch size) into primitive arrays
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(Integer.MIN_VALUE);
+        long[][] columns = {new long[1024], new long[1024]};
+        int[] count = {0};
+        streaming.query("SELECT id, niveau, xp_actuel FROM users", rs -> {
+            if (count[0] == columns[0].length) {
+                columns[0] = Arrays.copyOf(columns[0], count[0] * 2);
+                columns[1] = Arrays.copyOf(columns[1], count[0] * 2);
+            }
+            columns[0][count[0]] = rs.getLong(1);
+            columns[1][count[0]] = LevelProgression.totalXp(Math.max(rs.getInt(2), 1), rs.getInt(3));
+            count[0]++;
+        });
+        board.load(columns[0], columns[1], count[0]);
+        log.info("Leaderboard loaded with {} users in {} ms", count[0], (System.nanoTime() - start) / 1_000_000);
+        loadWindows();
+    }
+
+    // Points earned per user and hour over the longest window, summed by the database; opening
+    // balances were not earned in the window
+    private void loadWindows() {
+        long now = System.currentTimeMillis();
+        int hours = Arrays.stream(LeaderboardWindow.values()).mapToInt(LeaderboardWindow::getHours).max().orElse(0);
+        windows = new RollingLeaderboards(now);
+        jdbcTemplate.query("SELECT user_id, TIMESTAMP(DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00')) AS hour, SUM(points) "
+                        + "FROM points_ledger WHERE created_at >= ? AND points > 0 AND reason <> 'OPENING' "
+                        + "GROUP BY user_id, hour",
+                rs -> {
+                    windows.award(rs.getLong(1), rs.getLong(3), rs.getTimestamp(2).getTime());
+                }, new Timestamp(now - hours * 3_600_000L));
+    }
+
+    @Scheduled(fixedDelayString = "${mollysou.leaderboard.roll-delay-ms:60000}")
+    public void rollWindows() {
+        windows.advance(System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPointsChanged(PointsChangedEvent event) {
+        if (event.getXp() != 0) {
+            board.add(event.getUserId(), event.getXp());
+        }
+        // Only points earned count on the windowed boards, not points spent
+        if (event.getPoints() > 0) {
+            windows.award(event.getUserId(), event.getPoints(), System.currentTimeMillis());
+        }
+    }
+
+    // A null window is the all-time XP board; otherwise a LeaderboardWindow key
+    public List<LeaderboardEntryDTO> getTop(String window, Integer limit) {
+        int count = limit == null || limit <= 0 ? 10 : Math.min(limit, MAX_TOP);
+        if (window == null) {
+            return convertToDTOs(board.top(count));
+        }
+        return convertWindowToDTOs(windowBoard(window).top(count));
+    }
+
+    public LeaderboardEntryDTO getUserPosition(String window, Long userId) {
+        if (window == null) {
+            return convertToDTOs(List.of(entryOf(userId))).get(0);
+        }
+        RankedSkipList.Entry entry = windowBoard(window).get(userId);
+        if (entry != null) {
+            return convertWindowToDTOs(List.of(entry)).get(0);
+        }
+        // Nothing earned in the window: no position
+        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+        LeaderboardEntryDTO dto = new LeaderboardEntryDTO(null, user.getId(), user.getNomComplet(),
+                user.getPhotoProfil(), user.getNiveau(), null);
+        dto.setPoints(0L);
+        return dto;
+    }
+
+    public List<LeaderboardEntryDTO> getAround(String window, Long userId, Integer before, Integer after) {
+        if (window == null) {
+            entryOf(userId);
+            return convertToDTOs(board.around(userId, clamp(before), clamp(after)));
+        }
+        RankedSkipList windowBoard = windowBoard(window);
+        if (windowBoard.get(userId) == null) {
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("User not found");
+            }
+            return List.of();
+        }
+        return convertWindowToDTOs(windowBoard.around(userId, clamp(before), clamp(after)));
+    }
+
+    private RankedSkipList windowBoard(String window) {
+        return windows.board(LeaderboardWindow.fromKey(window));
+    }
+
+    private RankedSkipList.Entry entryOf(Long userId) {
+        RankedSkipList.Entry entry = board.get(userId);
+        if (entry == null) {
+            // Registered since the last rebuild and no XP yet
+            if (!userRepository.existsById(userId)) {
+                throw new RuntimeException("User not found");
+            }
+            board.add(userId, 0);
+            entry = board.get(userId);
+        }
+        return entry;
+    }
+
+    private int clamp(Integer neighbours) {
+        return neighbours == null || neighbours < 0 ? 5 : Math.min(neighbours, MAX_NEIGHBOURS);
+    }
+
+    // Names come from one IN query for the returned users
+    private List<LeaderboardEntryDTO> convertToDTOs(List<RankedSkipList.Entry> entries) {
+        Map<Long, User> users = findUsers(entries);
+        return entries.stream()
+                .map(entry -> {
+                    User user = users.get(entry.userId());
+                    return new LeaderboardEntryDTO(entry.rank(), entry.userId(),
+                            user != null ? user.getNomComplet() : null,
+                            user != null ? user.getPhotoProfil() : null,
+                            LevelProgression.fromTotalXp(entry.score()).level(),
+                            entry.score());
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Scores of the windowed boards are points earned; the level is the user's current one
+    private List<LeaderboardEntryDTO> convertWindowToDTOs(List<RankedSkipList.Entry> entries) {
+        Map<Long, User> users = findUsers(entries);
+        return entries.stream()
+                .map(entry -> {
+                    User user = users.get(entry.userId());
+                    LeaderboardEntryDTO dto = new LeaderboardEntryDTO(entry.rank(), entry.userId(),
+                            user != null ? user.getNomComplet() : null,
+                            user != null ? user.getPhotoProfil() : null,
+                            user != null ? user.getNiveau() : null,
+                            null);
+                    dto.setPoints(entry.score());
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, User> findUsers(List<RankedSkipList.Entry> entries) {
+        return userRepository.findAllById(entries.stream()
+                        .map(RankedSkipList.Entry::userId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.mollysou.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset cursor over a user's order history: the (orderDate, id) of the last row returned
+public final class OrderCursor {
+
+    private final LocalDateTime lastDate;
+    private final Long lastId;
+
+    public OrderCursor(LocalDateTime lastDate, Long lastId) {
+        this.lastDate = lastDate;
+        this.lastId = lastId;
+    }
+
+    public LocalDateTime getLastDate() { return lastDate; }
+
+    public Long getLastId() { return lastId; }
+
+    public String encode() {
+        String raw = lastDate + "|" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new OrderCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
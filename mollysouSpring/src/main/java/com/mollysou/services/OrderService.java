@@ -0,0 +1,82 @@
+package com.mollysou.services;
+
+import com.mollysou.dto.OrderDTO;
+import com.mollysou.dto.OrderItemDTO;
+import com.mollysou.dto.OrderPageDTO;
+import com.mollysou.dto.OrderSummaryDTO;
+import com.mollysou.repositories.OrderItemRepository;
+import com.mollysou.repositories.OrderRepository;
+import com.mollysou.repositories.UserOrderSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class OrderService {
+
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 50;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private UserOrderSummaryRepository summaryRepository;
+
+    // One query for the page, plus one IN query for the items when they are expanded
+    public OrderPageDTO getOrderHistory(Long userId, Integer size, String cursor, boolean expandItems) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<OrderDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderRepository.findHistoryFirstPage(userId, limit);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            rows = orderRepository.findHistoryAfter(userId, after.getLastDate(), after.getLastId(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderDTO> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        if (expandItems && !items.isEmpty()) {
+            Map<Long, List<OrderItemDTO>> byOrder = orderItemRepository.findDtoByOrderIdIn(items.stream()
+                            .map(OrderDTO::getId)
+                            .collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.groupingBy(OrderItemDTO::getOrderId));
+            items.forEach(order -> order.setItems(byOrder.getOrDefault(order.getId(), List.of())));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            OrderDTO last = items.get(items.size() - 1);
+            nextCursor = new OrderCursor(last.getOrderDate(), last.getId()).encode();
+        }
+        return new OrderPageDTO(items, nextCursor, hasMore);
+    }
+
+    public List<OrderItemDTO> getOrderItems(Long userId, Long orderId) {
+        if (!orderRepository.existsByIdAndUserId(orderId, userId)) {
+            throw new RuntimeException("Order not found");
+        }
+        return orderItemRepository.findDtoByOrderId(orderId);
+    }
+
+    public OrderSummaryDTO getOrderSummary(Long userId) {
+        return summaryRepository.findById(userId)
+                .map(summary -> new OrderSummaryDTO(userId, summary.getOrderCount(), summary.getItemCount(),
+                        summary.getTotalSpent(), summary.getLastOrderDate()))
+                .orElse(new OrderSummaryDTO(userId, 0, 0, BigDecimal.ZERO, null));
+    }
+}
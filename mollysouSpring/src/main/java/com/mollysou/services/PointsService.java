@@ -0,0 +1,140 @@
+package com.mollysou.services;
+
+import com.mollysou.dto.PointsBalanceDTO;
+import com.mollysou.dto.PointsEntryDTO;
+import com.mollysou.dto.PointsHistoryPageDTO;
+import com.mollysou.entities.PointsSnapshot;
+import com.mollysou.ledger.PointsLedger;
+import com.mollysou.progression.LevelProgression;
+import com.mollysou.repositories.PointsLedgerRepository;
+import com.mollysou.repositories.PointsSnapshotRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads of the points ledger: paginated history, and balances computed as the user's
+// snapshot plus the entries recorded after it. Snapshots are rolled forward periodically for
+// users with new entries, so a balance never sums more than a short tail of the ledger.
+@Service
+public class PointsService {
+
+    private static final Logger log = LoggerFactory.getLogger(PointsService.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Entries younger than this may belong to transactions still in flight, whose ids can be
+    // lower than ones already committed; snapshots stop before the first of them. Must be
+    // longer than the longest transaction that writes the ledger (including checkouts
+    // waiting for their locks), or an entry committed later would be skipped for good.
+    @Value("${mollysou.points.snapshot-lag-ms:60000}")
+    private long snapshotLagMs;
+
+    @Autowired
+    private PointsLedger pointsLedger;
+
+    @Autowired
+    private PointsLedgerRepository ledgerRepository;
+
+    @Autowired
+    private PointsSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Users who had points before the ledger existed start with one OPENING entry holding
+    // their balance and the XP of their level. Only users without any entry get one.
+    @PostConstruct
+    public void openBalances() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> openings = jdbcTemplate.query(
+                "SELECT u.id, u.points, u.niveau, u.xp_actuel FROM users u "
+                        + "WHERE NOT EXISTS (SELECT 1 FROM points_ledger l WHERE l.user_id = u.id)",
+                (rs, rowNum) -> new Object[]{rs.getLong("id"), rs.getLong("points"),
+                        LevelProgression.totalXp(Math.max(rs.getInt("niveau"), 1), rs.getInt("xp_actuel")),
+                        "OPENING", "opening", now});
+        if (!openings.isEmpty()) {
+            log.info("Opening ledger balances of {} users", openings.size());
+            jdbcTemplate.batchUpdate("INSERT IGNORE INTO points_ledger "
+                    + "(user_id, points, xp, reason, reference, created_at) VALUES (?, ?, ?, ?, ?, ?)", openings);
+        }
+    }
+
+    public PointsHistoryPageDTO getHistory(Long userId, Integer size, String cursor) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<PointsEntryDTO> rows = cursor == null || cursor.isBlank()
+                ? ledgerRepository.findHistoryFirstPage(userId, limit)
+                : ledgerRepository.findHistoryAfter(userId, Long.parseLong(cursor), limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<PointsEntryDTO> entries = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasMore ? String.valueOf(entries.get(entries.size() - 1).getId()) : null;
+        return new PointsHistoryPageDTO(entries, nextCursor, hasMore);
+    }
+
+    public PointsBalanceDTO getBalance(Long userId) {
+        PointsSnapshot snapshot = snapshotRepository.findById(userId).orElse(null);
+        long lastEntryId = snapshot != null ? snapshot.getLastEntryId() : 0;
+        PointsBalanceDTO tail = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(points), 0) AS points, COALESCE(SUM(xp), 0) AS xp, COUNT(*) AS entries "
+                        + "FROM points_ledger WHERE user_id = ? AND id > ?",
+                (rs, rowNum) -> new PointsBalanceDTO(userId, rs.getLong("points"), rs.getLong("xp"),
+                        lastEntryId, rs.getLong("entries")),
+                userId, lastEntryId);
+        if (snapshot != null) {
+            tail.setPoints(tail.getPoints() + snapshot.getPoints());
+            tail.setXp(tail.getXp() + snapshot.getXp());
+        }
+        return tail;
+    }
+
+    @Scheduled(fixedDelayString = "${mollysou.points.snapshot-delay-ms:60000}")
+    public void takeSnapshots() {
+        long cutoff = System.currentTimeMillis() - snapshotLagMs;
+        for (Long userId : pointsLedger.takeUsersTouchedBefore(cutoff)) {
+            try {
+                takeSnapshot(userId, new Timestamp(cutoff));
+            } catch (RuntimeException e) {
+                log.warn("Points snapshot of user {} failed", userId, e);
+            }
+        }
+    }
+
+    private void takeSnapshot(Long userId, Timestamp cutoff) {
+        PointsSnapshot snapshot = snapshotRepository.findById(userId).orElseGet(() -> {
+            PointsSnapshot created = new PointsSnapshot();
+            created.setUserId(userId);
+            return created;
+        });
+        // Only an unbroken run of ids is taken: everything up to just below the first entry at
+        // or after the cutoff, so that no entry is left behind lastEntryId
+        Object[] tail = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(points), 0), COALESCE(SUM(xp), 0), MAX(id) FROM points_ledger "
+                        + "WHERE user_id = ? AND id > ? AND id < COALESCE((SELECT MIN(id) FROM points_ledger "
+                        + "WHERE user_id = ? AND id > ? AND created_at >= ?), ?)",
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2), rs.getObject(3)},
+                userId, snapshot.getLastEntryId(), userId, snapshot.getLastEntryId(), cutoff, Long.MAX_VALUE);
+        if (tail[2] == null) {
+            return;
+        }
+        snapshot.setPoints(snapshot.getPoints() + (Long) tail[0]);
+        snapshot.setXp(snapshot.getXp() + (Long) tail[1]);
+        snapshot.setLastEntryId(((Number) tail[2]).longValue());
+        snapshot.setTakenAt(LocalDateTime.now());
+        snapshotRepository.save(snapshot);
+    }
+}
@@ -0,0 +1,67 @@
+package com.mollysou.services;
+
+import com.mollysou.repositories.ProductSortField;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset cursor: the sort it was issued for plus the (value, id) of the last row returned.
+// A null value (a product without a price or rating) is encoded as an empty value.
+public final class ProductCursor {
+
+    private final ProductSortField sort;
+    private final boolean descending;
+    private final Long lastId;
+    private final Object lastValue;
+
+    public ProductCursor(ProductSortField sort, boolean descending, Long lastId, Object lastValue) {
+        this.sort = sort;
+        this.descending = descending;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    public Long getLastId() { return lastId; }
+
+    public Object getLastValue() { return lastValue; }
+
+    public String encode() {
+        String value = lastValue == null ? "" :
+                lastValue instanceof BigDecimal ? ((BigDecimal) lastValue).toPlainString() : lastValue.toString();
+        String raw = sort.name() + "|" + (descending ? "d" : "a") + "|" + lastId + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token, ProductSortField sort, boolean descending) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !parts[0].equals(sort.name()) || !parts[1].equals(descending ? "d" : "a")) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+
+            Long lastId = Long.valueOf(parts[2]);
+            Object lastValue;
+            if (parts[3].isEmpty() && (sort == ProductSortField.PRICE || sort == ProductSortField.RATING)) {
+                return new ProductCursor(sort, descending, lastId, null);
+            }
+            switch (sort) {
+                case PRICE:
+                    lastValue = new BigDecimal(parts[3]);
+                    break;
+                case RATING:
+                    lastValue = Double.valueOf(parts[3]);
+                    break;
+                case NAME:
+                    lastValue = parts[3];
+                    break;
+                default:
+                    lastValue = lastId;
+            }
+            return new ProductCursor(sort, descending, lastId, lastValue);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.mollysou.services;
+
+import com.mollysou.catalog.CatalogChangeEvent;
+import com.mollysou.dto.ProductDTO;
+import com.mollysou.dto.ProductFilterResultDTO;
+import com.mollysou.entities.Product;
+import com.mollysou.repositories.ProductRepository;
+import com.mollysou.search.ProductFacetDoc;
+import com.mollysou.search.ProductFacetIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductFilterService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ProductFacetIndex index = new ProductFacetIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        index.clear();
+        productRepository.findAllFacetDocs().forEach(index::put);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (!(event.getEntity() instanceof Product product)) {
+            return;
+        }
+        if (event.isDeleted()) {
+            index.remove(product.getId());
+        } else {
+            index.put(new ProductFacetDoc(product.getId(),
+                    product.getCategory() != null ? product.getCategory().getId() : null,
+                    product.getPrix(), product.getRating(), product.getStock(), product.getDisponible()));
+        }
+    }
+
+    public ProductFilterResultDTO filter(ProductFacetIndex.FacetQuery query, Integer page, Integer size) {
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        int offset;
+        try {
+            offset = Math.multiplyExact(pageNumber, pageSize);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Page out of range");
+        }
+
+        ProductFacetIndex.FacetResult result = index.query(query, offset, pageSize);
+
+        // Only the rows of the requested page are read, in one IN query
+        List<ProductDTO> items = new ArrayList<>();
+        if (!result.getIds().isEmpty()) {
+            Map<Long, ProductDTO> byId = productRepository.findDtoByIdIn(result.getIds()).stream()
+                    .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+            for (Long id : result.getIds()) {
+                ProductDTO dto = byId.get(id);
+                if (dto != null) {
+                    items.add(dto);
+                }
+            }
+        }
+        return new ProductFilterResultDTO(result.getTotal(), pageNumber, pageSize, items, result.getFacets());
+    }
+}
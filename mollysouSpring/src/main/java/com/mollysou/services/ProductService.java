@@ -1,54 +1,124 @@
 package com.mollysou.services;
 
+import com.mollysou.catalog.CatalogSnapshot;
+import com.mollysou.catalog.CatalogSnapshotStore;
+import com.mollysou.dto.BatchResultDTO;
 import com.mollysou.dto.ProductDTO;
-import com.mollysou.entities.Product;
+import com.mollysou.dto.ProductPageDTO;
 import com.mollysou.repositories.ProductRepository;
+import com.mollysou.repositories.ProductSortField;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 100;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CatalogSnapshotStore snapshotStore;
+
     public List<ProductDTO> getProductsByCategory(Long categoryId) {
-        return productRepository.findByCategoryId(categoryId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        CatalogSnapshot snapshot = snapshotStore.freshCatalog();
+        if (snapshot != null) {
+            return snapshot.productsByCategory(categoryId);
+        }
+        return productRepository.findDtoByCategoryId(categoryId);
     }
 
     public List<ProductDTO> getAvailableProducts() {
-        return productRepository.findByDisponibleTrue().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        CatalogSnapshot snapshot = snapshotStore.freshCatalog();
+        if (snapshot != null) {
+            return snapshot.availableProducts();
+        }
+        return productRepository.findAvailableDtos();
+    }
+
+    public ProductPageDTO getAvailableProductsPage(String sort, String direction, Integer size, String cursor) {
+        return getPage(true, null, sort, direction, size, cursor);
+    }
+
+    public ProductPageDTO getProductsByCategoryPage(Long categoryId, String sort, String direction,
+                                                    Integer size, String cursor) {
+        return getPage(false, categoryId, sort, direction, size, cursor);
+    }
+
+    private ProductPageDTO getPage(boolean availableOnly, Long categoryId, String sort, String direction,
+                                   Integer size, String cursor) {
+        ProductSortField sortField = ProductSortField.fromParam(sort);
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+
+        ProductCursor after = cursor == null || cursor.isBlank()
+                ? null
+                : ProductCursor.decode(cursor, sortField, descending);
+
+        // Fetch one extra row to know whether another page exists
+        List<ProductDTO> rows = productRepository.findPage(availableOnly, categoryId, sortField, descending,
+                after != null ? after.getLastValue() : null,
+                after != null ? after.getLastId() : null,
+                pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductDTO> items = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ProductDTO last = items.get(items.size() - 1);
+            nextCursor = new ProductCursor(sortField, descending, last.getId(), sortValue(last, sortField)).encode();
+        }
+        return new ProductPageDTO(items, nextCursor, hasMore);
+    }
+
+    private Object sortValue(ProductDTO product, ProductSortField sort) {
+        switch (sort) {
+            case PRICE:
+                return product.getPrix();
+            case RATING:
+                return product.getRating();
+            case NAME:
+                return product.getNom();
+            default:
+                return product.getId();
+        }
     }
 
     public ProductDTO getProductById(Long id) {
-        return productRepository.findById(id)
-                .map(this::convertToDTO)
-                .orElse(null);
-    }
-
-    private ProductDTO convertToDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setNom(product.getNom());
-        dto.setDescription(product.getDescription());
-        dto.setPrix(product.getPrix());
-        dto.setImage(product.getImage());
-        dto.setStock(product.getStock());
-        dto.setRating(product.getRating());
-        dto.setDisponible(product.getDisponible());
-
-        if (product.getCategory() != null) {
-            dto.setCategoryNom(product.getCategory().getNom());
-            dto.setCategoryId(product.getCategory().getId());
+        return productRepository.findDtoById(id).orElse(null);
+    }
+
+    public BatchResultDTO<ProductDTO> getProductsByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " ids per request");
         }
 
-        return dto;
+        Map<Long, ProductDTO> found = productRepository.findDtoByIdIn(requested).stream()
+                .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+
+        List<ProductDTO> items = new ArrayList<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            ProductDTO dto = found.get(id);
+            if (dto != null) {
+                items.add(dto);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BatchResultDTO<>(items, missingIds);
     }
 }
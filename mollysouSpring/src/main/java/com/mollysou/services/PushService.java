@@ -0,0 +1,138 @@
+package com.mollysou.services;
+
+import com.mollysou.cooldown.CooldownExpiredEvent;
+import com.mollysou.dto.ProgressDTO;
+import com.mollysou.dto.PushMetricsDTO;
+import com.mollysou.ledger.PointsChangedEvent;
+import com.mollysou.push.PushHub;
+import com.mollysou.repositories.UserLevelState;
+import com.mollysou.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+// Pushes a user's new points and level after every committed ledger change, and their
+// cooldowns whenever one ends, to the user's open event streams. Nothing is read for users
+// without a connection. Clients receive "progress" and "cooldowns" when they connect, then:
+//   progress   points, level, XP and rank after a change
+//   level-up   the same, when the change crossed a level
+//   cooldowns  the seconds left for every game, after one of them reached zero
+// Ledger changes arrive on the ledger writer thread, so progress is read on the hub's
+// threads instead, one read at a time per user: changes made during a read are folded into
+// the next one, which keeps the last progress pushed the latest.
+@Service
+public class PushService {
+
+    private static final Logger log = LoggerFactory.getLogger(PushService.class);
+
+    @Autowired
+    private PushHub pushHub;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    // Users with a progress read queued or running
+    private final Map<Long, Refresh> refreshes = new ConcurrentHashMap<>();
+
+    public SseEmitter connect(Long userId) {
+        ProgressDTO progress = findProgress(userId);
+        return pushHub.connect(userId, List.of(
+                new PushHub.Message("progress", progress),
+                new PushHub.Message("cooldowns", userService.getUserCooldowns(userId))));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPointsChanged(PointsChangedEvent event) {
+        if (!pushHub.isConnected(event.getUserId())) {
+            return;
+        }
+        boolean[] start = {false};
+        refreshes.compute(event.getUserId(), (id, refresh) -> {
+            if (refresh == null) {
+                refresh = new Refresh();
+                start[0] = true;
+            }
+            refresh.pending = true;
+            refresh.leveledUp |= event.isLeveledUp();
+            return refresh;
+        });
+        if (start[0]) {
+            try {
+                pushHub.execute(() -> refresh(event.getUserId()));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                refreshes.remove(event.getUserId());
+            }
+        }
+    }
+
+    @EventListener
+    public void onCooldownExpired(CooldownExpiredEvent event) {
+        if (pushHub.isConnected(event.getUserId())) {
+            pushHub.publish(event.getUserId(),
+                    new PushHub.Message("cooldowns", userService.getUserCooldowns(event.getUserId())));
+        }
+    }
+
+    public PushMetricsDTO getMetrics() {
+        PushMetricsDTO metrics = new PushMetricsDTO();
+        metrics.setConnections(pushHub.getConnectionCount());
+        metrics.setUsers(pushHub.getUserCount());
+        metrics.setSent(pushHub.getSentCount());
+        metrics.setCoalesced(pushHub.getCoalescedCount());
+        metrics.setDropped(pushHub.getDroppedCount());
+        metrics.setFailed(pushHub.getFailedCount());
+        return metrics;
+    }
+
+    private void refresh(Long userId) {
+        while (true) {
+            boolean[] leveledUp = {false};
+            Refresh refresh = refreshes.compute(userId, (id, current) -> {
+                if (!current.pending) {
+                    return null;
+                }
+                current.pending = false;
+                leveledUp[0] = current.leveledUp;
+                current.leveledUp = false;
+                return current;
+            });
+            if (refresh == null) {
+                return;
+            }
+            try {
+                ProgressDTO progress = findProgress(userId);
+                pushHub.publish(userId, new PushHub.Message("progress", progress));
+                if (leveledUp[0]) {
+                    pushHub.publish(userId, new PushHub.Message("level-up", progress));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not push the progress of user {}", userId, e);
+            }
+        }
+    }
+
+    private ProgressDTO findProgress(Long userId) {
+        UserLevelState state = userRepository.findLevelStateById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return new ProgressDTO(state.getPoints(), state.getNiveau(), state.getXpActuel(),
+                state.getXpProchainNiveau(), state.getRank());
+    }
+
+    private static class Refresh {
+        private boolean pending;
+        private boolean leveledUp;
+    }
+}
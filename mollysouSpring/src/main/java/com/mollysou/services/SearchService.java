@@ -0,0 +1,181 @@
+package com.mollysou.services;
+
+import com.mollysou.catalog.CatalogChangeEvent;
+import com.mollysou.dto.CategoryDTO;
+import com.mollysou.dto.CategorySearchResultDTO;
+import com.mollysou.dto.ProductDTO;
+import com.mollysou.dto.ProductSearchResultDTO;
+import com.mollysou.entities.Category;
+import com.mollysou.entities.Product;
+import com.mollysou.repositories.CategoryRepository;
+import com.mollysou.repositories.ProductRepository;
+import com.mollysou.search.SearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+@Service
+public class SearchService {
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final SearchIndex productIndex = new SearchIndex();
+    private final SearchIndex categoryIndex = new SearchIndex();
+
+    // Indexed documents, kept so that hits are served without going back to the database
+    private final Map<Long, ProductDTO> products = new ConcurrentHashMap<>();
+    private final Map<Long, CategoryDTO> categories = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIndex() {
+        productIndex.clear();
+        categoryIndex.clear();
+        products.clear();
+        categories.clear();
+
+        categoryRepository.findAll().forEach(this::indexCategory);
+        productRepository.findAll().forEach(this::indexProduct);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.getEntity() instanceof Product product) {
+            if (event.isDeleted()) {
+                productIndex.remove(product.getId());
+                products.remove(product.getId());
+            } else {
+                indexProduct(product);
+            }
+        } else if (event.getEntity() instanceof Category category) {
+            if (event.isDeleted()) {
+                categoryIndex.remove(category.getId());
+                categories.remove(category.getId());
+            } else {
+                indexCategory(category);
+            }
+        }
+    }
+
+    public ProductSearchResultDTO searchProducts(String query, Boolean disponible, Long categoryId, Integer limit) {
+        int max = clampLimit(limit);
+        LongPredicate filter = id -> {
+            ProductDTO product = products.get(id);
+            return product != null
+                    && (disponible == null || disponible.equals(product.getDisponible()))
+                    && (categoryId == null || categoryId.equals(product.getCategoryId()));
+        };
+
+        List<ProductDTO> results;
+        if (query == null || query.isBlank()) {
+            // No query: best rated products matching the filters
+            results = products.values().stream()
+                    .filter(p -> filter.test(p.getId()))
+                    .sorted(Comparator.comparing(ProductDTO::getRating, Comparator.nullsLast(Comparator.reverseOrder())))
+                    .limit(max)
+                    .map(this::withCategoryName)
+                    .collect(Collectors.toList());
+        } else {
+            results = productIndex.search(query, filter, max).stream()
+                    .map(hit -> products.get(hit.getId()))
+                    .filter(p -> p != null)
+                    .map(this::withCategoryName)
+                    .collect(Collectors.toList());
+        }
+        return new ProductSearchResultDTO(query, results.size(), results);
+    }
+
+    public CategorySearchResultDTO searchCategories(String query, Integer limit) {
+        int max = clampLimit(limit);
+
+        List<CategoryDTO> results;
+        if (query == null || query.isBlank()) {
+            results = categories.values().stream()
+                    .sorted(Comparator.comparing(CategoryDTO::getNom, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                    .limit(max)
+                    .collect(Collectors.toList());
+        } else {
+            results = categoryIndex.search(query, categories::containsKey, max).stream()
+                    .map(hit -> categories.get(hit.getId()))
+                    .filter(c -> c != null)
+                    .collect(Collectors.toList());
+        }
+        return new CategorySearchResultDTO(query, results.size(), results);
+    }
+
+    private void indexProduct(Product product) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(product.getId());
+        dto.setNom(product.getNom());
+        dto.setDescription(product.getDescription());
+        dto.setPrix(product.getPrix());
+        dto.setImage(product.getImage());
+        dto.setStock(product.getStock());
+        dto.setRating(product.getRating());
+        dto.setDisponible(product.getDisponible());
+        // Only the id is read from the (possibly lazy) category, the name is resolved at query time
+        if (product.getCategory() != null) {
+            dto.setCategoryId(product.getCategory().getId());
+        }
+
+        products.put(dto.getId(), dto);
+        productIndex.put(dto.getId(), dto.getNom(), dto.getDescription());
+    }
+
+    private void indexCategory(Category category) {
+        CategoryDTO dto = new CategoryDTO();
+        dto.setId(category.getId());
+        dto.setNom(category.getNom());
+        dto.setIcon(category.getIcon());
+        dto.setColor(category.getColor());
+        dto.setDescription(category.getDescription());
+
+        categories.put(dto.getId(), dto);
+        categoryIndex.put(dto.getId(), dto.getNom(), dto.getDescription());
+    }
+
+    private ProductDTO withCategoryName(ProductDTO indexed) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(indexed.getId());
+        dto.setNom(indexed.getNom());
+        dto.setDescription(indexed.getDescription());
+        dto.setPrix(indexed.getPrix());
+        dto.setImage(indexed.getImage());
+        dto.setStock(indexed.getStock());
+        dto.setRating(indexed.getRating());
+        dto.setDisponible(indexed.getDisponible());
+        dto.setCategoryId(indexed.getCategoryId());
+
+        if (indexed.getCategoryId() != null) {
+            CategoryDTO category = categories.get(indexed.getCategoryId());
+            if (category != null) {
+                dto.setCategoryNom(category.getNom());
+            }
+        }
+        return dto;
+    }
+
+    private int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
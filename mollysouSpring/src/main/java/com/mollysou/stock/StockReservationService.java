@@ -0,0 +1,207 @@
+package com.mollysou.stock;
+
+import com.mollysou.catalog.CatalogChangeEvent;
+import com.mollysou.entities.Product;
+import com.mollysou.repositories.ProductRepository;
+import com.mollysou.repositories.ProductStockLevel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Holds stock for cart lines so that concurrent shoppers cannot oversell a product.
+// Available stock per product (Product.stock minus what is held) lives in a sharded
+// in-memory counter; a hold takes from it atomically and gives back when the line is
+// removed. A hold lives exactly as long as its line in a loaded cart: CartStore takes the
+// holds of a cart's lines when it loads the cart and gives them back when it evicts it, and
+// expired lines give theirs back through CartExpiryService. Product.stock stays the source
+// of truth: counters are periodically reconciled with it by applying the difference to the
+// last value seen.
+@Service
+public class StockReservationService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final int shards = StripedStockCounter.defaultShards();
+    private final Map<Long, ProductStock> products = new ConcurrentHashMap<>();
+    private final Map<ReservationKey, Integer> reservations = new ConcurrentHashMap<>();
+
+    // Sets the quantity held for a user's cart line; false if that much is not available.
+    // A quantity of 0 releases the line.
+    public boolean hold(Long userId, Long productId, int quantity) {
+        ProductStock stock = stockOf(productId);
+        if (stock == null) {
+            // Nothing to give back to a product that no longer exists, and nothing to hold
+            // when the line goes away
+            if (quantity <= 0) {
+                reservations.remove(new ReservationKey(userId, productId));
+                return true;
+            }
+            return false;
+        }
+        boolean[] held = {true};
+        reservations.compute(new ReservationKey(userId, productId), (key, current) -> {
+            int delta = quantity - (current != null ? current : 0);
+            if (delta > 0 && !stock.available.tryAcquire(delta)) {
+                held[0] = false;
+                return current;
+            }
+            if (delta < 0) {
+                stock.available.release(-delta);
+            }
+            return quantity > 0 ? Integer.valueOf(quantity) : null;
+        });
+        return held[0];
+    }
+
+    // Reads the stock of the products not known yet in one query, e.g. before holding every
+    // line of a cart, so that the holds do not read them one by one
+    public void load(Collection<Long> productIds) {
+        List<Long> missing = productIds.stream()
+                .filter(productId -> !products.containsKey(productId))
+                .distinct()
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (ProductStockLevel level : productRepository.findStockByIdIn(missing)) {
+            long stock = level.getStock() != null ? level.getStock() : 0;
+            products.putIfAbsent(level.getId(), new ProductStock(new StripedStockCounter(shards, stock), stock));
+        }
+    }
+
+    public void release(Long userId, Long productId) {
+        hold(userId, productId, 0);
+    }
+
+    public void releaseAll(Long userId, Collection<Long> productIds) {
+        for (Long productId : productIds) {
+            release(userId, productId);
+        }
+    }
+
+    // Turns a hold into a sale: the quantity leaves the reservation without going back to
+    // the available stock. Call once the matching Product.stock decrement is committed.
+    public int consume(Long userId, Long productId) {
+        Integer reserved = reservations.remove(new ReservationKey(userId, productId));
+        if (reserved == null) {
+            return 0;
+        }
+        ProductStock stock = products.get(productId);
+        if (stock != null) {
+            stock.knownStock.addAndGet(-reserved);
+        }
+        return reserved;
+    }
+
+    public int getHeldQuantity(Long userId, Long productId) {
+        Integer reserved = reservations.get(new ReservationKey(userId, productId));
+        return reserved != null ? reserved : 0;
+    }
+
+    public long getAvailable(Long productId) {
+        ProductStock stock = stockOf(productId);
+        return stock != null ? stock.available.available() : 0;
+    }
+
+    // Picks up stock changes made outside this service (checkout, back office, direct SQL).
+    // Only differences to the last value seen are applied, so a race with consume() is
+    // corrected by the next run.
+    @Scheduled(fixedDelayString = "${mollysou.stock.reconcile-delay-ms:30000}")
+    public void reconcile() {
+        if (products.isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(products.keySet());
+        for (ProductStockLevel level : productRepository.findStockByIdIn(new ArrayList<>(missing))) {
+            missing.remove(level.getId());
+            applyStock(level.getId(), level.getStock());
+        }
+        // Deleted products
+        missing.forEach(products::remove);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (!(event.getEntity() instanceof Product product)) {
+            return;
+        }
+        if (event.isDeleted()) {
+            products.remove(product.getId());
+        } else {
+            applyStock(product.getId(), product.getStock());
+        }
+    }
+
+    private void applyStock(Long productId, Integer stockLevel) {
+        ProductStock stock = products.get(productId);
+        if (stock == null) {
+            return;
+        }
+        long level = stockLevel != null ? stockLevel : 0;
+        long delta = level - stock.knownStock.getAndSet(level);
+        if (delta != 0) {
+            stock.available.add(delta);
+        }
+    }
+
+    private ProductStock stockOf(Long productId) {
+        ProductStock stock = products.get(productId);
+        if (stock != null) {
+            return stock;
+        }
+        List<ProductStockLevel> levels = productRepository.findStockByIdIn(List.of(productId));
+        if (levels.isEmpty()) {
+            return null;
+        }
+        long level = levels.get(0).getStock() != null ? levels.get(0).getStock() : 0;
+        ProductStock loaded = new ProductStock(new StripedStockCounter(shards, level), level);
+        ProductStock existing = products.putIfAbsent(productId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private static class ProductStock {
+        private final StripedStockCounter available;
+        // Product.stock as last read from the database
+        private final AtomicLong knownStock;
+
+        ProductStock(StripedStockCounter available, long knownStock) {
+            this.available = available;
+            this.knownStock = new AtomicLong(knownStock);
+        }
+    }
+
+    private static class ReservationKey {
+        private final long userId;
+        private final long productId;
+
+        ReservationKey(long userId, long productId) {
+            this.userId = userId;
+            this.productId = productId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ReservationKey other)) {
+                return false;
+            }
+            return userId == other.userId && productId == other.productId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, productId);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.mollysou.stock;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Available quantity of one product, split across shards so that concurrent reservations on
+// a hot product mostly CAS different cache lines. A thread starts at its own shard and takes
+// from the others when that one runs dry; the total never goes below zero. A request for
+// more than the total is refused up front.
+public final class StripedStockCounter {
+
+    // Longs per cache line: each shard lives at index shard * PAD, the rest is padding
+    private static final int PAD = 8;
+
+    private final int shards;
+    private final AtomicLongArray cells;
+    // Stock removed while it was reserved; paid back from releases before they become available
+    private final AtomicLong deficit = new AtomicLong();
+    // Serializes the retries of gatherers that failed on the lock-free path
+    private final Object slowPathLock = new Object();
+
+    public StripedStockCounter(int shards, long initial) {
+        if (Integer.bitCount(shards) != 1) {
+            throw new IllegalArgumentException("Shard count must be a power of two");
+        }
+        this.shards = shards;
+        this.cells = new AtomicLongArray(shards * PAD);
+        add(initial);
+    }
+
+    public static int defaultShards() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Integer.highestOneBit(Math.max(1, cores - 1)) << 1;
+    }
+
+    // Takes quantity if that much is available in total; all or nothing
+    public boolean tryAcquire(long quantity) {
+        if (quantity <= 0) {
+            return true;
+        }
+        // More than what is left is refused without touching the shards, so that it never
+        // holds units that smaller requests could have had
+        if (quantity > available()) {
+            return false;
+        }
+        int home = homeShard();
+
+        // Fast path: the home shard covers the whole quantity
+        long taken = takeUpTo(home, quantity);
+        if (taken == quantity) {
+            return true;
+        }
+        if (gather(home, quantity, taken)) {
+            return true;
+        }
+        // Another gatherer may have been holding part of the stock meanwhile: retry once,
+        // one gatherer at a time, so that two of them cannot make each other fail
+        synchronized (slowPathLock) {
+            return quantity <= available() && gather(home, quantity, 0);
+        }
+    }
+
+    public void release(long quantity) {
+        quantity = payDeficit(quantity);
+        if (quantity > 0) {
+            cells.getAndAdd(homeShard() * PAD, quantity);
+        }
+    }
+
+    // Applies a stock change made elsewhere. When more is removed than is available, the
+    // shortfall is taken from later releases.
+    public void add(long delta) {
+        if (delta >= 0) {
+            delta = payDeficit(delta);
+            // Spread new stock so that every shard can serve its threads
+            long share = delta / shards;
+            long remainder = delta % shards;
+            for (int shard = 0; shard < shards; shard++) {
+                cells.getAndAdd(shard * PAD, share + (shard < remainder ? 1 : 0));
+            }
+            return;
+        }
+        long missing = -delta;
+        for (int shard = 0; shard < shards && missing > 0; shard++) {
+            missing -= takeUpTo(shard, missing);
+        }
+        if (missing > 0) {
+            deficit.addAndGet(missing);
+        }
+    }
+
+    // Approximate under concurrent updates
+    public long available() {
+        long sum = -deficit.get();
+        for (int shard = 0; shard < shards; shard++) {
+            sum += cells.get(shard * PAD);
+        }
+        return sum;
+    }
+
+    // Takes what is missing from every shard, starting at home where taken was already taken;
+    // gives everything back if the total is not enough
+    private boolean gather(int home, long quantity, long taken) {
+        long[] takenPerShard = new long[shards];
+        takenPerShard[home] = taken;
+        for (int i = 0; i < shards && taken < quantity; i++) {
+            int shard = (home + i) & (shards - 1);
+            long got = takeUpTo(shard, quantity - taken);
+            takenPerShard[shard] += got;
+            taken += got;
+        }
+        if (taken == quantity) {
+            return true;
+        }
+        for (int shard = 0; shard < shards; shard++) {
+            if (takenPerShard[shard] > 0) {
+                cells.getAndAdd(shard * PAD, takenPerShard[shard]);
+            }
+        }
+        return false;
+    }
+
+    private long payDeficit(long quantity) {
+        while (true) {
+            long owed = deficit.get();
+            if (owed == 0) {
+                return quantity;
+            }
+            long paid = Math.min(owed, quantity);
+            if (deficit.compareAndSet(owed, owed - paid)) {
+                return quantity - paid;
+            }
+        }
+    }
+
+    private long takeUpTo(int shard, long quantity) {
+        int index = shard * PAD;
+        while (true) {
+            long current = cells.get(index);
+            if (current <= 0) {
+                return 0;
+            }
+            long take = Math.min(current, quantity);
+            if (cells.compareAndSet(index, current, current - take)) {
+                return take;
+            }
+        }
+    }
+
+    private int homeShard() {
+        // Hash of the thread, stable for the thread's life, so a thread keeps to its shard
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & (shards - 1);
+    }
+}
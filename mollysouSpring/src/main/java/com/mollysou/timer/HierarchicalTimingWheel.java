@@ -0,0 +1,156 @@
+package com.mollysou.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Hierarchical timing wheel: LEVELS wheels of 64 slots, each slot of level L spanning 64^L
+// ticks. Scheduling and cancelling are O(1); advancing costs one step per elapsed tick plus
+// the timers that expire or move down a level. A timer sits in the lowest level whose
+// rotation it shares with the current tick, and is cascaded to lower levels as the current
+// tick reaches its slot. Deadlines beyond the top level wait in an overflow list.
+public class HierarchicalTimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    private final long tickMs;
+    private final Timer<T>[][] wheels;
+    private final Timer<T> overflow = new Timer<>(null, 0);
+    // Timers scheduled for a tick that was already processed; fired by the next advance
+    private final Timer<T> due = new Timer<>(null, 0);
+    // Next tick to process
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, long nowMs) {
+        this.tickMs = tickMs;
+        this.currentTick = nowMs / tickMs;
+        @SuppressWarnings("unchecked")
+        Timer<T>[][] wheels = (Timer<T>[][]) new Timer<?>[LEVELS][SLOTS];
+        this.wheels = wheels;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new Timer<>(null, 0);
+            }
+        }
+    }
+
+    public synchronized Timer<T> schedule(T value, long deadlineMs) {
+        long tick = deadlineMs / tickMs;
+        Timer<T> timer = new Timer<>(value, Math.max(tick, currentTick));
+        if (tick < currentTick) {
+            link(due, timer);
+        } else {
+            place(timer);
+        }
+        size++;
+        return timer;
+    }
+
+    // Safe to call for timers that already fired or were cancelled
+    public synchronized void cancel(Timer<T> timer) {
+        if (timer != null && timer.prev != null) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    // Processes every tick up to nowMs and returns the values whose deadline passed
+    public synchronized List<T> advance(long nowMs) {
+        List<T> expired = new ArrayList<>();
+        expireAll(due, expired);
+        long targetTick = nowMs / tickMs;
+        while (currentTick <= targetTick) {
+            long tick = currentTick;
+            if ((tick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+                cascade(overflow);
+            }
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                if ((tick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(wheels[level][(int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1))]);
+                }
+            }
+            expireAll(wheels[0][(int) (tick & (SLOTS - 1))], expired);
+            currentTick++;
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void expireAll(Timer<T> head, List<T> expired) {
+        while (head.next != head) {
+            Timer<T> timer = head.next;
+            unlink(timer);
+            size--;
+            expired.add(timer.value);
+        }
+    }
+
+    private void cascade(Timer<T> head) {
+        // Detach the whole list first: placing may put timers back into this same slot list
+        Timer<T> first = head.next;
+        if (first == head) {
+            return;
+        }
+        Timer<T> last = head.prev;
+        head.next = head;
+        head.prev = head;
+        last.next = null;
+        for (Timer<T> timer = first; timer != null; ) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long tick = Math.max(timer.tick, currentTick);
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if ((tick >>> shift) == (currentTick >>> shift)) {
+                link(wheels[level][(int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1))], timer);
+                return;
+            }
+        }
+        link(overflow, timer);
+    }
+
+    private static <T> void link(Timer<T> head, Timer<T> timer) {
+        timer.prev = head.prev;
+        timer.next = head;
+        head.prev.next = timer;
+        head.prev = timer;
+    }
+
+    private static <T> void unlink(Timer<T> timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    // A scheduled deadline; also used as the sentinel head of each slot's circular list
+    public static final class Timer<T> {
+        private final T value;
+        private final long tick;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T value, long tick) {
+            this.value = value;
+            this.tick = tick;
+            if (value == null) {
+                this.prev = this;
+                this.next = this;
+            }
+        }
+
+        public T getValue() { return value; }
+    }
+}
@@ -0,0 +1,134 @@
+package com.mollysou.benchmarks;
+
+import com.mollysou.dto.AddToCartDTO;
+import com.mollysou.entities.Category;
+import com.mollysou.entities.Product;
+import com.mollysou.entities.User;
+import com.mollysou.repositories.CategoryRepository;
+import com.mollysou.repositories.ProductRepository;
+import com.mollysou.repositories.UserRepository;
+import com.mollysou.services.CartService;
+import com.mollysou.services.CheckoutService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+
+// Orders per second under concurrent checkouts of distinct users sharing a few hot products,
+// then the cost of retrying every checkout with the same Idempotency-Key. Needs the
+// configured database; not part of the regular test run:
+//   mvn test -Dtest=CheckoutBenchmark
+@SpringBootTest(properties = {
+        "mollysou.snapshot.enabled=false",
+        "mollysou.cart.journal-dir=target/benchmark-data"
+})
+class CheckoutBenchmark {
+
+    private static final int USERS = 2000;
+    private static final int PRODUCTS = 20;
+    private static final int LINES_PER_CART = 3;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> productIds = new ArrayList<>();
+    private Long categoryId;
+
+    @Test
+    void concurrentCheckouts() throws Exception {
+        setUp();
+
+        long start = System.nanoTime();
+        runAll(userId -> checkoutService.checkout(userId, "bench-" + userId));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d checkouts with %d threads: %.1f orders/s%n", USERS, THREADS, USERS / seconds);
+
+        start = System.nanoTime();
+        runAll(userId -> checkoutService.checkout(userId, "bench-" + userId));
+        seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d idempotent retries: %.1f requests/s%n", USERS, USERS / seconds);
+    }
+
+    private void setUp() {
+        Category category = new Category();
+        category.setNom("Benchmark");
+        categoryId = categoryRepository.save(category).getId();
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setNom("Benchmark " + i);
+            product.setPrix(BigDecimal.valueOf(5 + i));
+            product.setStock(USERS * LINES_PER_CART);
+            product.setCategory(category);
+            productIds.add(productRepository.save(product).getId());
+        }
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setEmail("checkout-bench-" + i + "@test.local");
+            user.setPassword("secret");
+            Long userId = userRepository.save(user).getId();
+            userIds.add(userId);
+            for (int line = 0; line < LINES_PER_CART; line++) {
+                Long productId = productIds.get((i + line) % PRODUCTS);
+                cartService.addToCart(userId, new AddToCartDTO(productId, 1));
+            }
+        }
+    }
+
+    private void runAll(LongConsumer checkout) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long userId : userIds) {
+                futures.add(executor.submit(() -> checkout.accept(userId)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (Long userId : userIds) {
+            jdbcTemplate.update("DELETE FROM order_items WHERE order_id IN (SELECT id FROM orders WHERE user_id = ?)", userId);
+            jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM cart WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM user_order_summaries WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM points_ledger WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM points_snapshots WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+        productIds.forEach(productRepository::deleteById);
+        if (categoryId != null) {
+            categoryRepository.deleteById(categoryId);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.mollysou.benchmarks;
+
+import com.mollysou.leaderboard.RankedSkipList;
+
+import java.util.Random;
+
+// Leaderboard at 10M users: bulk load time, then throughput of rank lookups, score updates,
+// top-100 and neighbour queries on the ranked skip list. Needs a large heap; run after
+// mvn test-compile with:
+//   java -Xmx8g -cp target/classes:target/test-classes com.mollysou.benchmarks.LeaderboardBenchmark [users]
+public class LeaderboardBenchmark {
+
+    private static final long DURATION_MS = 2000;
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Random random = new Random(1);
+        long[] userIds = new long[users];
+        long[] scores = new long[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = i + 1;
+            // Skewed like real XP: most users low, a long tail of high scores
+            scores[i] = (long) (Math.pow(random.nextDouble(), 3) * 50_000_000);
+        }
+
+        RankedSkipList board = new RankedSkipList();
+        long start = System.nanoTime();
+        board.load(userIds, scores, users);
+        System.out.printf("load of %,d users: %d ms%n", users, (System.nanoTime() - start) / 1_000_000);
+
+        report("rank of user", () -> board.get(1 + random.nextInt(users)));
+        report("score update", () -> board.add(1 + random.nextInt(users), random.nextInt(5_000)));
+        report("top 100", () -> board.top(100));
+        report("around user (5+5)", () -> board.around(1 + random.nextInt(users), 5, 5));
+    }
+
+    private static void report(String name, Runnable operation) {
+        // Warm-up pass so the JIT has compiled the hot path
+        measure(operation, DURATION_MS / 4);
+        double perSecond = measure(operation, DURATION_MS);
+        System.out.printf("%-20s %,12.0f ops/s %10.2f us/op%n", name, perSecond, 1e6 / perSecond);
+    }
+
+    private static double measure(Runnable operation, long durationMs) {
+        long deadline = System.nanoTime() + durationMs * 1_000_000;
+        long operations = 0;
+        long start = System.nanoTime();
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < 256; i++) {
+                operation.run();
+            }
+            operations += 256;
+        }
+        return operations * 1e9 / (System.nanoTime() - start);
+    }
+}
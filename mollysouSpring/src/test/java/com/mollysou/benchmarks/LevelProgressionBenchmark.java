@@ -0,0 +1,68 @@
+package com.mollysou.benchmarks;
+
+import com.mollysou.progression.LevelProgression;
+
+import java.util.Random;
+
+// Cost of resolving an XP grant with the precomputed table against the original
+// one-level-per-pass loop, for small, large and huge grants. Run the main method from the
+// IDE, or after mvn test-compile:
+//   java -cp target/classes:target/test-classes com.mollysou.benchmarks.LevelProgressionBenchmark
+public class LevelProgressionBenchmark {
+
+    private static final int STATES = 1 << 16;
+    private static final long DURATION_MS = 1000;
+
+    public static void main(String[] args) {
+        System.out.printf("%12s %16s %16s%n", "max grant", "loop ns/op", "table ns/op");
+        for (int maxGrant : new int[]{1_000, 100_000, 10_000_000, 1_000_000_000}) {
+            Random random = new Random(1);
+            int[] levels = new int[STATES];
+            int[] xps = new int[STATES];
+            int[] thresholds = new int[STATES];
+            for (int i = 0; i < STATES; i++) {
+                levels[i] = 1 + random.nextInt(50);
+                thresholds[i] = LevelProgression.xpForLevel(levels[i]);
+                xps[i] = random.nextInt(maxGrant);
+            }
+            // Warm-up passes so the JIT has compiled both
+            measure(levels, xps, thresholds, false, DURATION_MS / 4);
+            measure(levels, xps, thresholds, true, DURATION_MS / 4);
+            double loop = measure(levels, xps, thresholds, false, DURATION_MS);
+            double table = measure(levels, xps, thresholds, true, DURATION_MS);
+            System.out.printf("%12d %16.1f %16.1f%n", maxGrant, loop, table);
+        }
+    }
+
+    private static double measure(int[] levels, int[] xps, int[] thresholds, boolean table, long durationMs) {
+        long deadline = System.nanoTime() + durationMs * 1_000_000;
+        long operations = 0;
+        long sink = 0;
+        long start = System.nanoTime();
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < 1024; i++) {
+                int index = (int) (operations++ & (STATES - 1));
+                sink += table
+                        ? LevelProgression.resolve(levels[index], xps[index], thresholds[index]).level()
+                        : loop(levels[index], xps[index], thresholds[index]);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.println();
+        }
+        return (double) elapsed / operations;
+    }
+
+    // The original level-up loop, rank included since it ran on every pass
+    private static int loop(int level, int xp, int nextLevelXp) {
+        String rank = null;
+        while (xp >= nextLevelXp) {
+            xp -= nextLevelXp;
+            level++;
+            nextLevelXp = LevelProgression.xpForLevel(level);
+            rank = LevelProgression.rankForLevel(level);
+        }
+        return rank != null ? level + rank.length() : level;
+    }
+}
@@ -0,0 +1,86 @@
+package com.mollysou.benchmarks;
+
+import com.mollysou.entities.User;
+import com.mollysou.ledger.PointsLedger;
+import com.mollysou.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Rewards per second when many threads reward the same few users at once through the
+// ledger's group-commit writer, and a check that no reward was lost. Needs the configured database; not part of the regular test run:
+//   mvn test -Dtest=RewardBenchmark
+@SpringBootTest(properties = {
+        "mollysou.snapshot.enabled=false",
+        "mollysou.cart.journal-dir=target/benchmark-data"
+})
+class RewardBenchmark {
+
+    private static final int USERS = 4;
+    private static final int REWARDS_PER_USER = 5000;
+    private static final int POINTS = 7;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private PointsLedger pointsLedger;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    @Test
+    void concurrentRewardsOnHotUsers() throws Exception {
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setEmail("reward-bench-" + i + "@test.local");
+            user.setPassword("secret");
+            userIds.add(userRepository.save(user).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < USERS * REWARDS_PER_USER; i++) {
+                Long userId = userIds.get(i % USERS);
+                futures.add(executor.submit(() -> pointsLedger.append(userId, POINTS, POINTS, "REWARD", null).join()));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d rewards on %d users with %d threads: %.1f rewards/s%n",
+                USERS * REWARDS_PER_USER, USERS, THREADS, USERS * REWARDS_PER_USER / seconds);
+
+        for (Long userId : userIds) {
+            User user = userRepository.findById(userId).orElseThrow();
+            assertEquals(REWARDS_PER_USER * POINTS, user.getPoints().intValue());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        for (Long userId : userIds) {
+            jdbcTemplate.update("DELETE FROM points_ledger WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM points_snapshots WHERE user_id = ?", userId);
+            userRepository.deleteById(userId);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.mollysou.benchmarks;
+
+import com.mollysou.stock.StripedStockCounter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Contention benchmark for stock reservations on a single hot product: every thread
+// reserves one unit and releases it, as fast as it can. Compares the sharded counter with
+// a single CAS'd AtomicLong. Run the main method from the IDE, or after mvn test-compile:
+//   java -cp target/classes:target/test-classes com.mollysou.benchmarks.StockReservationBenchmark
+public class StockReservationBenchmark {
+
+    private static final long DURATION_MS = 2000;
+    private static final long STOCK = 1_000_000;
+
+    interface Counter {
+        boolean tryAcquire(long quantity);
+        void release(long quantity);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d cores, %d shards%n", cores, StripedStockCounter.defaultShards());
+        System.out.printf("%8s %18s %18s%n", "threads", "single CAS ops/s", "sharded ops/s");
+
+        for (int threads = 1; threads <= cores * 2; threads *= 2) {
+            double single = run(threads, singleCas());
+            double sharded = run(threads, sharded());
+            System.out.printf("%8d %18.0f %18.0f%n", threads, single, sharded);
+        }
+    }
+
+    private static Counter singleCas() {
+        AtomicLong available = new AtomicLong(STOCK);
+        return new Counter() {
+            public boolean tryAcquire(long quantity) {
+                while (true) {
+                    long current = available.get();
+                    if (current < quantity) {
+                        return false;
+                    }
+                    if (available.compareAndSet(current, current - quantity)) {
+                        return true;
+                    }
+                }
+            }
+
+            public void release(long quantity) {
+                available.addAndGet(quantity);
+            }
+        };
+    }
+
+    private static Counter sharded() {
+        StripedStockCounter counter = new StripedStockCounter(StripedStockCounter.defaultShards(), STOCK);
+        return new Counter() {
+            public boolean tryAcquire(long quantity) {
+                return counter.tryAcquire(quantity);
+            }
+
+            public void release(long quantity) {
+                counter.release(quantity);
+            }
+        };
+    }
+
+    private static double run(int threads, Counter counter) throws InterruptedException {
+        // Warm-up pass so the JIT has compiled the hot loop
+        measure(threads, counter, DURATION_MS / 4);
+        return measure(threads, counter, DURATION_MS);
+    }
+
+    private static double measure(int threads, Counter counter, long durationMs) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long done = 0;
+                while ((done & 1023) != 0 || System.nanoTime() < deadline[0]) {
+                    if (counter.tryAcquire(1)) {
+                        counter.release(1);
+                    }
+                    done++;
+                }
+                operations.add(done);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        deadline[0] = System.nanoTime() + durationMs * 1_000_000;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.sum() * 1000.0 / durationMs;
+    }
+}
@@ -0,0 +1,37 @@
+package com.mollysou.games;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTests {
+
+    private static final int CAPACITY = 200_000;
+
+    @Test
+    void neverMissesAnAddedKey() {
+        BloomFilter filter = new BloomFilter(CAPACITY, 0.01);
+        for (int i = 0; i < CAPACITY; i++) {
+            filter.add(i + ":result-" + i);
+        }
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(filter.mightContain(i + ":result-" + i), "key " + i);
+        }
+        assertTrue(filter.isFull());
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheConfiguredOne() {
+        BloomFilter filter = new BloomFilter(CAPACITY, 0.01);
+        for (int i = 0; i < CAPACITY; i++) {
+            filter.add("1:" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < CAPACITY; i++) {
+            if (filter.mightContain("2:" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < CAPACITY * 0.015, falsePositives + " false positives");
+    }
+}
@@ -0,0 +1,87 @@
+package com.mollysou.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The rolling boards must always rank users by what a full scan of the awards would give
+class RollingLeaderboardsTests {
+
+    private static final long HOUR_MS = 3_600_000;
+
+    @Test
+    void boardsMatchAFullScanOfTheAwards() {
+        Random random = new Random(11);
+        long now = 1_000 * HOUR_MS;
+        RollingLeaderboards leaderboards = new RollingLeaderboards(now);
+        List<long[]> awards = new ArrayList<>();
+        for (int step = 0; step < 20_000; step++) {
+            int action = random.nextInt(100);
+            if (action < 2) {
+                // Anything from a minute to a few days without awards
+                now += random.nextInt(100) == 0 ? random.nextInt(400) * HOUR_MS : random.nextInt(90) * 60_000L;
+                leaderboards.advance(now);
+            } else {
+                // Mostly now, sometimes late (e.g. loaded at startup)
+                long at = random.nextInt(10) == 0 ? now - random.nextInt(200) * HOUR_MS : now;
+                long userId = random.nextInt(300);
+                long points = 1 + random.nextInt(50);
+                leaderboards.award(userId, points, at);
+                if (at <= now) {
+                    awards.add(new long[]{userId, points, at});
+                }
+            }
+            if (step % 500 == 0) {
+                for (LeaderboardWindow window : LeaderboardWindow.values()) {
+                    assertEquals(scan(awards, window, now), listed(leaderboards.board(window)),
+                            window + " at step " + step);
+                }
+            }
+        }
+    }
+
+    @Test
+    void hoursLeaveTheDayBeforeTheWeek() {
+        long now = 500 * HOUR_MS;
+        RollingLeaderboards leaderboards = new RollingLeaderboards(now);
+        leaderboards.award(1, 10, now);
+        leaderboards.award(2, 5, now + HOUR_MS);
+
+        leaderboards.advance(now + 24 * HOUR_MS);
+        assertEquals(Map.of(2L, 5L), listed(leaderboards.board(LeaderboardWindow.DAY)));
+        assertEquals(Map.of(1L, 10L, 2L, 5L), listed(leaderboards.board(LeaderboardWindow.WEEK)));
+
+        leaderboards.advance(now + 169 * HOUR_MS);
+        assertEquals(Map.of(), listed(leaderboards.board(LeaderboardWindow.WEEK)));
+        assertEquals(0, leaderboards.board(LeaderboardWindow.DAY).size());
+    }
+
+    private static Map<Long, Long> scan(List<long[]> awards, LeaderboardWindow window, long now) {
+        long currentHour = now / HOUR_MS;
+        Map<Long, Long> totals = new HashMap<>();
+        for (long[] award : awards) {
+            long hour = award[2] / HOUR_MS;
+            if (hour > currentHour - window.getHours() && hour <= currentHour) {
+                totals.merge(award[0], award[1], Long::sum);
+            }
+        }
+        return totals;
+    }
+
+    private static Map<Long, Long> listed(RankedSkipList board) {
+        Map<Long, Long> totals = new HashMap<>();
+        long previous = Long.MAX_VALUE;
+        for (RankedSkipList.Entry entry : board.top(board.size())) {
+            assertEquals(true, entry.score() <= previous, "ordered by score");
+            previous = entry.score();
+            totals.put(entry.userId(), entry.score());
+        }
+        return totals;
+    }
+}
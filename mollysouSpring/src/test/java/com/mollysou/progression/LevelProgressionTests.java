@@ -0,0 +1,100 @@
+package com.mollysou.progression;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The table-driven progression must give exactly what the original one-level-per-pass loop gave
+class LevelProgressionTests {
+
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    void resolveMatchesLevelUpLoop() {
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            int level = 1 + random.nextInt(random.nextBoolean() ? 20 : 400);
+            int nextLevelXp = random.nextInt(10) == 0 ? 1000 : loopNextLevelXp(level);
+            int xp = randomXp(random);
+            assertEquals(loop(level, xp, nextLevelXp), LevelProgression.resolve(level, xp, nextLevelXp),
+                    "level " + level + ", xp " + xp + ", next " + nextLevelXp);
+        }
+    }
+
+    @Test
+    void totalXpOfNewUserMatchesLevelUpLoop() {
+        Random random = new Random(7);
+        for (int i = 0; i < SAMPLES; i++) {
+            int xp = randomXp(random);
+            // A new user is at level 1 with the default 1000 XP threshold
+            assertEquals(loop(1, xp, 1000), LevelProgression.fromTotalXp(xp), "xp " + xp);
+        }
+    }
+
+    @Test
+    void boundariesMatchLevelUpLoop() {
+        for (int level = 1; level < 300; level++) {
+            int threshold = loopNextLevelXp(level);
+            for (int xp : new int[]{0, threshold - 1, threshold, threshold + 1, Integer.MAX_VALUE}) {
+                assertEquals(loop(level, xp, threshold), LevelProgression.resolve(level, xp, threshold));
+            }
+        }
+    }
+
+    @Test
+    void rankFollowsLevelTiers() {
+        for (int level = 1; level < 1000; level++) {
+            assertEquals(loopRank(level), LevelProgression.rankForLevel(level), "level " + level);
+        }
+    }
+
+    private static int randomXp(Random random) {
+        return switch (random.nextInt(3)) {
+            case 0 -> random.nextInt(5_000);
+            case 1 -> random.nextInt(5_000_000);
+            default -> random.nextInt(Integer.MAX_VALUE);
+        };
+    }
+
+    // The original UserService algorithm
+    private static LevelProgression.Progress loop(int level, int xp, int nextLevelXp) {
+        while (xp >= nextLevelXp) {
+            xp -= nextLevelXp;
+            level++;
+            nextLevelXp = loopNextLevelXp(level);
+        }
+        return new LevelProgression.Progress(level, xp, nextLevelXp, loopRank(level));
+    }
+
+    private static int loopNextLevelXp(int currentLevel) {
+        if (currentLevel < 10) {
+            return 1000 + (currentLevel * 100);
+        } else if (currentLevel < 50) {
+            return 2000 + (currentLevel * 200);
+        } else if (currentLevel < 100) {
+            return 10000 + (currentLevel * 500);
+        } else if (currentLevel < 150) {
+            return 50000 + (currentLevel * 1000);
+        } else {
+            return 150000 + (currentLevel * 2000);
+        }
+    }
+
+    private static String loopRank(int level) {
+        if (level >= 200) {
+            return "DIAMOND";
+        } else if (level >= 100) {
+            return "PLATINUM";
+        } else if (level >= 50) {
+            return "GOLD";
+        } else if (level >= 30) {
+            return "SILVER";
+        } else if (level >= 10) {
+            return "BRONZE";
+        } else {
+            return "UNRANKED";
+        }
+    }
+}
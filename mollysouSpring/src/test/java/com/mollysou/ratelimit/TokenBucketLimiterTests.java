@@ -0,0 +1,81 @@
+package com.mollysou.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketLimiterTests {
+
+    @Test
+    void allowsABurstThenTheRefillRate() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 5, 2, 0);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0L, limiter.tryAcquire(1, 0));
+        }
+        assertEquals(500L, limiter.tryAcquire(1, 0));
+        // Another key has its own bucket
+        assertEquals(0L, limiter.tryAcquire(2, 0));
+
+        // Polling every ms for 10 s grants exactly the 20 tokens refilled meanwhile
+        int granted = 0;
+        for (long now = 1; now <= 10_000; now++) {
+            if (limiter.tryAcquire(1, now) == 0) {
+                granted++;
+            }
+        }
+        assertEquals(20, granted);
+        assertEquals(26L, limiter.getAllowedCount());
+    }
+
+    @Test
+    void takesSeveralTokensAllOrNothing() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 10, 1, 0);
+        assertEquals(0L, limiter.tryAcquire(1, 7, 0));
+        // 3 left: a request for 5 waits for the 2 missing and takes nothing
+        assertEquals(2_000L, limiter.tryAcquire(1, 5, 0));
+        assertEquals(0L, limiter.tryAcquire(1, 3, 0));
+        assertEquals(0L, limiter.tryAcquire(1, 5, 5_000));
+        // More than the capacity costs the whole bucket
+        assertEquals(0L, limiter.tryAcquire(2, 50, 0));
+        assertEquals(1_000L, limiter.tryAcquire(2, 0));
+        assertEquals(0L, limiter.tryAcquire(2, 50, 10_000));
+    }
+
+    @Test
+    void evictsOnlyIdleFullBuckets() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 2, 1, 0);
+        limiter.tryAcquire(1, 0);
+        limiter.tryAcquire(2, 0);
+        limiter.tryAcquire(2, 0);
+        // Key 1 is full again after 1 s, key 2 after 2 s
+        assertEquals(1, limiter.evictIdle(1_500, 1_000));
+        assertEquals(1, limiter.getBucketCount());
+        assertEquals(1, limiter.evictIdle(2_000, 1_000));
+        assertEquals(0, limiter.getBucketCount());
+    }
+
+    @Test
+    void concurrentCallersShareTheBucket() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter("test", 1000, 0.001, 0);
+        AtomicInteger granted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tryAcquire(7, 0) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1000, granted.get());
+        assertEquals(7000L, limiter.getRejectedCount());
+    }
+}
@@ -0,0 +1,173 @@
+package com.mollysou.services;
+
+import com.mollysou.entities.Cart;
+import com.mollysou.entities.Category;
+import com.mollysou.entities.Product;
+import com.mollysou.entities.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Read endpoints must issue a fixed number of statements, whatever the number of rows returned.
+// Statements are counted on the connections of the DataSource, so that JdbcTemplate reads are
+// counted along with Hibernate's. The catalog snapshot is disabled so that listings go to the
+// database, and every case gets a fresh context, so that no cart or stock is already in memory.
+@SpringBootTest(properties = "mollysou.snapshot.enabled=false")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Transactional
+class QueryCountTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void productListingsUseOneStatement() {
+        Category small = createCategory("Petite");
+        Category large = createCategory("Grande");
+        createProducts(small, 2);
+        createProducts(large, 12);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1, statementsFor(() -> productService.getProductsByCategory(small.getId())));
+        assertEquals(1, statementsFor(() -> productService.getProductsByCategory(large.getId())));
+        assertEquals(1, statementsFor(() -> productService.getAvailableProducts()));
+        assertEquals(1, statementsFor(() -> productService.getAvailableProductsPage("price", "asc", 5, null)));
+    }
+
+    @Test
+    void cartListingDoesNotDependOnCartSize() {
+        Category category = createCategory("Panier");
+        User smallCartUser = createUser("small@test.local");
+        User largeCartUser = createUser("large@test.local");
+        fillCart(smallCartUser, createProducts(category, 1));
+        fillCart(largeCartUser, createProducts(category, 10));
+        entityManager.flush();
+        entityManager.clear();
+
+        long small = statementsFor(() -> cartService.getUserCart(smallCartUser.getId()));
+        long large = statementsFor(() -> cartService.getUserCart(largeCartUser.getId()));
+        assertTrue(small > 0);
+        assertEquals(small, large);
+    }
+
+    private long statementsFor(Runnable call) {
+        StatementCounting.start();
+        try {
+            call.run();
+        } finally {
+            StatementCounting.stop();
+        }
+        entityManager.clear();
+        return StatementCounting.statements.get();
+    }
+
+    private Category createCategory(String nom) {
+        Category category = new Category();
+        category.setNom(nom);
+        entityManager.persist(category);
+        return category;
+    }
+
+    private Product[] createProducts(Category category, int count) {
+        Product[] products = new Product[count];
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setNom(category.getNom() + " " + i);
+            product.setPrix(BigDecimal.valueOf(10 + i));
+            product.setStock(10);
+            product.setCategory(category);
+            entityManager.persist(product);
+            products[i] = product;
+        }
+        return products;
+    }
+
+    private User createUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("secret");
+        entityManager.persist(user);
+        return user;
+    }
+
+    private void fillCart(User user, Product[] products) {
+        for (Product product : products) {
+            Cart cart = new Cart();
+            cart.setUser(user);
+            cart.setProduct(product);
+            entityManager.persist(cart);
+        }
+    }
+
+    // Wraps the DataSource so that every statement prepared by the test thread is counted;
+    // the application's scheduled jobs use the same DataSource from other threads
+    @TestConfiguration
+    static class StatementCounting {
+
+        private static final AtomicLong statements = new AtomicLong();
+        private static volatile Thread counted;
+
+        static void start() {
+            statements.set(0);
+            counted = Thread.currentThread();
+        }
+
+        static void stop() {
+            counted = null;
+        }
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+                String name = method.getName();
+                if (type == Connection.class && Thread.currentThread() == counted
+                        && (name.startsWith("prepare") || name.equals("createStatement"))) {
+                    statements.incrementAndGet();
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                return result instanceof Connection connection && name.equals("getConnection")
+                        ? proxy(Connection.class, connection)
+                        : result;
+            });
+        }
+    }
+}
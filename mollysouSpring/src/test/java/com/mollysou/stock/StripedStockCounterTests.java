@@ -0,0 +1,49 @@
+package com.mollysou.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedStockCounterTests {
+
+    @Test
+    void gathersFromEveryShard() {
+        StripedStockCounter counter = new StripedStockCounter(8, 10);
+        assertTrue(counter.tryAcquire(10));
+        assertEquals(0L, counter.available());
+        counter.release(3);
+        assertFalse(counter.tryAcquire(4));
+        assertTrue(counter.tryAcquire(3));
+    }
+
+    @Test
+    void overAskingNeverStarvesSmallRequests() throws InterruptedException {
+        StripedStockCounter counter = new StripedStockCounter(8, 100);
+        AtomicInteger granted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            boolean greedy = t % 2 == 0;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (greedy) {
+                        assertFalse(counter.tryAcquire(101));
+                    } else if (counter.tryAcquire(1)) {
+                        granted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // Every unit went to a small request, and none was refused while units were left
+        assertEquals(100, granted.get());
+        assertEquals(0L, counter.available());
+    }
+}